@@ -2,44 +2,186 @@ package com.farao_community.farao.swe_csa.app;
 
 import com.farao_community.farao.swe_csa.api.exception.CsaInternalException;
 import com.farao_community.farao.swe_csa.app.s3.S3ArtifactsAdapter;
-import com.powsybl.commons.datasource.MemDataSource;
 import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.serde.ExportOptions;
+import com.powsybl.iidm.serde.NetworkSerDe;
 import com.powsybl.openrao.data.crac.api.Crac;
 import com.powsybl.openrao.data.raoresult.api.RaoResult;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class FileExporter {
 
-    private static final String IIDM_EXPORT_FORMAT = "XIIDM";
-    private static final String IIDM_EXTENSION = "xiidm";
+    private static final int NETWORK_PIPE_BUFFER_SIZE = 1024 * 1024;
+    private static final int UPLOAD_THREADS = 4;
+    private static final long UPLOAD_FAILURE_TIMEOUT_SECONDS = 10;
+    private static final List<String> IIDM_EXTENSIONS = List.of(".xiidm", ".jiidm", ".biidm", ".iidm");
 
     private final S3ArtifactsAdapter s3ArtifactsAdapter;
 
+    @Value("${csa-runner.network-artifact.format:XIIDM}")
+    private NetworkArtifactFormat networkArtifactFormat = NetworkArtifactFormat.XIIDM;
+    @Value("${csa-runner.network-artifact.gzip:false}")
+    private boolean networkArtifactGzip;
+    @Value("${csa-runner.network-artifact.deduplication:false}")
+    private boolean networkArtifactDeduplication;
+    // pre-signed url of the networks uploaded or being uploaded by each task, by network key
+    private final Map<String, Map<String, CompletableFuture<String>>> networkArtifactUrlsByTask = new ConcurrentHashMap<>();
+
+    // uploads reading the networks written by the callers, idle threads are released
+    private final ThreadPoolExecutor uploadExecutor = new ThreadPoolExecutor(UPLOAD_THREADS, UPLOAD_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+
     public FileExporter(S3ArtifactsAdapter s3ArtifactsAdapter) {
         this.s3ArtifactsAdapter = s3ArtifactsAdapter;
+        this.uploadExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    public String getNetworkArtifactExtension() {
+        return networkArtifactGzip ? networkArtifactFormat.getExtension() + ".gz" : networkArtifactFormat.getExtension();
     }
 
     public String saveNetworkInArtifact(String taskId, Network network, String networkFilePath) {
-        MemDataSource memDataSource = new MemDataSource();
-        network.write(IIDM_EXPORT_FORMAT, new Properties(), memDataSource);
-        try (InputStream is = memDataSource.newInputStream("", IIDM_EXTENSION)) {
-            s3ArtifactsAdapter.uploadFile(networkFilePath, is);
+        return saveNetworkInArtifact(taskId, network, networkFilePath, null);
+    }
+
+    // networks saved with the same key by a task are expected to be identical, only the first one is uploaded
+    public String saveNetworkInArtifact(String taskId, Network network, String networkFilePath, String networkKey) {
+        if (!networkArtifactDeduplication || networkKey == null) {
+            return uploadNetwork(taskId, network, networkFilePath);
+        }
+        Map<String, CompletableFuture<String>> networkArtifactUrls = networkArtifactUrlsByTask.computeIfAbsent(taskId, id -> new ConcurrentHashMap<>());
+        CompletableFuture<String> newNetworkArtifactUrl = new CompletableFuture<>();
+        CompletableFuture<String> networkArtifactUrl = networkArtifactUrls.computeIfAbsent(networkKey, key -> newNetworkArtifactUrl);
+        if (networkArtifactUrl == newNetworkArtifactUrl) {
+            // upload runs outside of the map, callers of the same key wait for its url
+            try {
+                newNetworkArtifactUrl.complete(uploadNetwork(taskId, network, networkFilePath));
+            } catch (RuntimeException e) {
+                // a failed upload is not reused, next caller of the key uploads again
+                networkArtifactUrls.remove(networkKey, newNetworkArtifactUrl);
+                newNetworkArtifactUrl.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return networkArtifactUrl.join();
+        } catch (CompletionException e) {
+            throw new CsaInternalException(taskId, "Error while trying to save network to artifacts", e.getCause());
+        }
+    }
+
+    // input network url can be sent to rao-runner instead of an export of the unchanged network when it is in an IIDM format
+    public Optional<String> getReusableNetworkUrl(String networkUrl) {
+        if (!networkArtifactDeduplication || networkUrl == null) {
+            return Optional.empty();
+        }
+        String networkPath = URI.create(networkUrl).getPath();
+        return networkPath != null && IIDM_EXTENSIONS.stream().anyMatch(networkPath::endsWith) ? Optional.of(networkUrl) : Optional.empty();
+    }
+
+    public void clearNetworkArtifactIndex(String taskId) {
+        networkArtifactUrlsByTask.remove(taskId);
+    }
+
+    // network is written to a bounded pipe read by the upload, so it is never held in memory as a whole
+    private String uploadNetwork(String taskId, Network network, String networkFilePath) {
+        Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+        try {
+            PipedInputStream networkInputStream = new PipedInputStream(NETWORK_PIPE_BUFFER_SIZE);
+            PipedOutputStream networkOutputStream = new PipedOutputStream(networkInputStream);
+            Future<?> upload = uploadExecutor.submit(() -> {
+                if (mdcContext != null) {
+                    MDC.setContextMap(mdcContext);
+                }
+                try (networkInputStream) {
+                    s3ArtifactsAdapter.uploadFile(networkFilePath, networkInputStream);
+                } finally {
+                    MDC.clear();
+                }
+                return null;
+            });
+            OutputStream artifactOutputStream = networkArtifactGzip ? new GZIPOutputStream(networkOutputStream) : networkOutputStream;
+            try {
+                NetworkSerDe.write(network, new ExportOptions().setFormat(networkArtifactFormat.getDataFormat()), artifactOutputStream);
+                artifactOutputStream.close();
+            } catch (RuntimeException | IOException e) {
+                throw new CsaInternalException(taskId, "Error while trying to save network to artifacts", getWriteFailureCause(upload, e));
+            }
+            upload.get();
         } catch (IOException e) {
             throw new CsaInternalException(taskId, "Error while trying to save network to artifacts", e);
+        } catch (ExecutionException e) {
+            throw new CsaInternalException(taskId, "Error while trying to save network to artifacts", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CsaInternalException(taskId, "Error while trying to save network to artifacts", e);
         }
         return s3ArtifactsAdapter.generatePreSignedUrl(networkFilePath);
     }
 
+    // An I/O failure of the writer usually comes from the pipe closed by an upload that failed first, whose failure is then the one reported.
+    // An upload still running is interrupted, which makes it fail instead of storing a truncated network
+    private static Throwable getWriteFailureCause(Future<?> upload, Exception writeFailure) throws InterruptedException {
+        if (hasIoCause(writeFailure)) {
+            try {
+                upload.get(UPLOAD_FAILURE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                return e.getCause();
+            } catch (TimeoutException e) {
+                // upload still reads the pipe, the writer failed on its own
+            }
+        }
+        upload.cancel(true);
+        return writeFailure;
+    }
+
+    private static boolean hasIoCause(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void saveRaoResultInArtifact(String destinationPath, RaoResult raoResult, Crac crac) {
         ByteArrayOutputStream outputStreamRaoResult = new ByteArrayOutputStream();
         Properties propertiesAmperes = new Properties();
         propertiesAmperes.setProperty("rao-result.export.json.flows-in-amperes", "true");
         raoResult.write("JSON", crac, propertiesAmperes, outputStreamRaoResult);
-        s3ArtifactsAdapter.uploadFile(destinationPath, new ByteArrayInputStream(outputStreamRaoResult.toByteArray()));
+        byte[] raoResultBytes = outputStreamRaoResult.toByteArray();
+        s3ArtifactsAdapter.uploadFile(destinationPath, new ByteArrayInputStream(raoResultBytes), raoResultBytes.length);
+    }
+
+    public void setNetworkArtifactFormat(NetworkArtifactFormat networkArtifactFormat) {
+        this.networkArtifactFormat = networkArtifactFormat;
+    }
+
+    public void setNetworkArtifactGzip(boolean networkArtifactGzip) {
+        this.networkArtifactGzip = networkArtifactGzip;
+    }
+
+    public void setNetworkArtifactDeduplication(boolean networkArtifactDeduplication) {
+        this.networkArtifactDeduplication = networkArtifactDeduplication;
     }
 
 }
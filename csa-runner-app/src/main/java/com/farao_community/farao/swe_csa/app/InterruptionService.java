@@ -7,7 +7,9 @@ import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.stereotype.Service;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class InterruptionService {
@@ -18,6 +20,7 @@ public class InterruptionService {
     private final JsonApiConverter jsonApiConverter = new JsonApiConverter();
 
     private final Set<String> tasksToInterrupt;
+    private final Map<String, Set<String>> raoRunIdsByTask = new ConcurrentHashMap<>();
 
     public InterruptionService(StreamBridge streamBridge, Logger businessLogger) {
         this.streamBridge = streamBridge;
@@ -30,9 +33,28 @@ public class InterruptionService {
         String taskId = interruptionRequest.getId();
         businessLogger.info("Csa run interruption asked for task {}, finding RAO runners for stopping...", taskId);
         streamBridge.send(STOP_RAO_BINDING, taskId);
+        raoRunIdsByTask.getOrDefault(taskId, Set.of()).forEach(runId -> streamBridge.send(STOP_RAO_BINDING, runId));
         tasksToInterrupt.add(taskId);
     }
 
+    // RAO runs launched with a run id different from the task id must be registered to be stopped on task interruption
+    public void registerRaoRun(String taskId, String runId) {
+        raoRunIdsByTask.computeIfAbsent(taskId, id -> ConcurrentHashMap.newKeySet()).add(runId);
+    }
+
+    public void unregisterRaoRun(String taskId, String runId) {
+        raoRunIdsByTask.computeIfPresent(taskId, (id, runIds) -> {
+            runIds.remove(runId);
+            return runIds.isEmpty() ? null : runIds;
+        });
+    }
+
+    public void stopRaoRun(String taskId, String runId) {
+        businessLogger.info("Stopping RAO run {} of task {}", runId, taskId);
+        streamBridge.send(STOP_RAO_BINDING, runId);
+        unregisterRaoRun(taskId, runId);
+    }
+
     public Set<String> getTasksToInterrupt() {
         return tasksToInterrupt;
     }
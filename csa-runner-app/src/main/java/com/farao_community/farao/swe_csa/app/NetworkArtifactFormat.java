@@ -0,0 +1,26 @@
+package com.farao_community.farao.swe_csa.app;
+
+import com.powsybl.commons.io.TreeDataFormat;
+
+// IIDM formats scaled networks can be exported to for RAO requests
+public enum NetworkArtifactFormat {
+    XIIDM(TreeDataFormat.XML, "xiidm"),
+    JIIDM(TreeDataFormat.JSON, "jiidm"),
+    BIIDM(TreeDataFormat.BIN, "biidm");
+
+    private final TreeDataFormat dataFormat;
+    private final String extension;
+
+    NetworkArtifactFormat(TreeDataFormat dataFormat, String extension) {
+        this.dataFormat = dataFormat;
+        this.extension = extension;
+    }
+
+    public TreeDataFormat getDataFormat() {
+        return dataFormat;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
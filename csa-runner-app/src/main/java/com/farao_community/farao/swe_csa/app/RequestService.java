@@ -40,6 +40,8 @@ public class RequestService {
     }
 
     public byte[] launchCsaRequest(byte[] req) {
+        // computation time budget starts with the request, before inputs are imported
+        Instant requestReceptionInstant = Instant.now();
         byte[] resultBytes;
         CsaRequest csaRequest = jsonApiConverter.fromJsonMessage(req, CsaRequest.class);
         MDC.put("gridcapaTaskId", csaRequest.getId());
@@ -63,7 +65,7 @@ public class RequestService {
             String ptEsRaoResultDestinationPath = s3ArtifactsAdapter.createRaoResultDestination(OffsetDateTime.ofInstant(utcInstant, ZoneId.of("UTC")).toString(), DichotomyDirection.PT_ES.toString());
             String frEsRaoResultDestinationPath = s3ArtifactsAdapter.createRaoResultDestination(OffsetDateTime.ofInstant(utcInstant, ZoneId.of("UTC")).toString(), DichotomyDirection.FR_ES.toString());
 
-            FinalResult finalResult = dichotomyRunner.runDichotomy(csaRequest, ptEsRaoResultDestinationPath, frEsRaoResultDestinationPath);
+            FinalResult finalResult = dichotomyRunner.runDichotomy(csaRequest, ptEsRaoResultDestinationPath, frEsRaoResultDestinationPath, requestReceptionInstant);
             businessLogger.info("CSA computation finished for TimeStamp: '{}'", utcInstant);
             // Validate results for both borders
             if (finalResult.ptEsResult() == null) {
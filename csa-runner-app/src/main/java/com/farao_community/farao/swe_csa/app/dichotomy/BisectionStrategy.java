@@ -0,0 +1,11 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+public class BisectionStrategy implements NextPointStrategy {
+
+    @Override
+    public double nextValue(Pair<Double, DichotomyStepResult> highestUnsecureStep, Pair<Double, DichotomyStepResult> lowestSecureStep) {
+        return (lowestSecureStep.getLeft() + highestUnsecureStep.getLeft()) / 2;
+    }
+}
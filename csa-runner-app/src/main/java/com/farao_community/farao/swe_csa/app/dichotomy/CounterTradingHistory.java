@@ -0,0 +1,20 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Final counter trading values of a business timestamp with the dichotomy bounds they were found in.
+ */
+public record CounterTradingHistory(double ptEsCt, double frEsCt, double ptEsLowestSecureCt, double ptEsHighestUnsecureCt, double frEsLowestSecureCt, double frEsHighestUnsecureCt) {
+
+    public static CounterTradingHistory fromIndex(Index index) {
+        CounterTradingValues counterTradingValues = index.getBestValidDichotomyStepResult().getCounterTradingValues();
+        return new CounterTradingHistory(counterTradingValues.ptEsCt(), counterTradingValues.frEsCt(),
+            getCtValue(index.getPtEsLowestSecureStep()), getCtValue(index.getPtEsHighestUnsecureStep()),
+            getCtValue(index.getFrEsLowestSecureStep()), getCtValue(index.getFrEsHighestUnsecureStep()));
+    }
+
+    private static double getCtValue(Pair<Double, DichotomyStepResult> step) {
+        return step == null ? Double.NaN : step.getLeft();
+    }
+}
@@ -0,0 +1,60 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.farao_community.farao.swe_csa.app.s3.S3ArtifactsAdapter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Stores counter trading results in artifacts bucket, one object by business timestamp.
+ * History is only used to speed up the dichotomy, so reading or writing failures are logged and ignored.
+ */
+@Service
+public class CounterTradingHistoryStore {
+
+    private final S3ArtifactsAdapter s3ArtifactsAdapter;
+    private final Logger businessLogger;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public CounterTradingHistoryStore(S3ArtifactsAdapter s3ArtifactsAdapter, Logger businessLogger) {
+        this.s3ArtifactsAdapter = s3ArtifactsAdapter;
+        this.businessLogger = businessLogger;
+    }
+
+    public void save(String businessTimestamp, CounterTradingHistory counterTradingHistory) {
+        try {
+            byte[] content = objectMapper.writeValueAsBytes(counterTradingHistory);
+            s3ArtifactsAdapter.uploadFile(getHistoryPath(OffsetDateTime.parse(businessTimestamp).withOffsetSameInstant(ZoneOffset.UTC)), new ByteArrayInputStream(content));
+        } catch (Exception e) {
+            businessLogger.warn("Counter trading history could not be saved for timestamp {}: {}", businessTimestamp, e.getMessage());
+        }
+    }
+
+    // Same business timestamp is looked for first in case of re-run, then previous hour
+    public Optional<CounterTradingHistory> find(String businessTimestamp) {
+        OffsetDateTime offsetDateTime = OffsetDateTime.parse(businessTimestamp).withOffsetSameInstant(ZoneOffset.UTC);
+        return read(offsetDateTime).or(() -> read(offsetDateTime.minusHours(1)));
+    }
+
+    private Optional<CounterTradingHistory> read(OffsetDateTime offsetDateTime) {
+        String historyPath = getHistoryPath(offsetDateTime);
+        try {
+            Optional<byte[]> content = s3ArtifactsAdapter.readFileIfExists(historyPath);
+            if (content.isPresent()) {
+                return Optional.of(objectMapper.readValue(content.get(), CounterTradingHistory.class));
+            }
+        } catch (Exception e) {
+            businessLogger.warn("Counter trading history '{}' could not be read: {}", historyPath, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    static String getHistoryPath(OffsetDateTime offsetDateTime) {
+        return "history/counter-trading/" + offsetDateTime.getYear() + "/" + offsetDateTime.getMonthValue() + "/" + offsetDateTime.getDayOfMonth() + "/" + offsetDateTime.getHour() + "_" + offsetDateTime.getMinute() + ".json";
+    }
+}
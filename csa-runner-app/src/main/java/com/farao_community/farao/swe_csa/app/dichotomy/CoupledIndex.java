@@ -0,0 +1,173 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+// Searches (PT-ES CT, FR-ES CT) pairs together: a border result is secure for any pair with more CT on both borders and unsecure for any pair with less,
+// so every evaluated step bounds the search around the best secure pair, whatever the CT of the other border was
+public class CoupledIndex extends Index {
+    private final double ptEsMinValue;
+    private final double frEsMinValue;
+    private final NextPointStrategy nextPointStrategy;
+    private final List<DichotomyStepResult> ptEsStepResults = new ArrayList<>();
+    private final List<DichotomyStepResult> frEsStepResults = new ArrayList<>();
+
+    public CoupledIndex(double ptEsMinValue, double frEsMinValue, double precision, double maxDichotomiesByBorder, NextPointStrategy nextPointStrategy) {
+        super(ptEsMinValue, frEsMinValue, precision, maxDichotomiesByBorder, nextPointStrategy);
+        this.ptEsMinValue = ptEsMinValue;
+        this.frEsMinValue = frEsMinValue;
+        this.nextPointStrategy = nextPointStrategy;
+    }
+
+    @Override
+    public boolean addPtEsDichotomyStepResult(double ptEsCtStepValue, DichotomyStepResult stepResult) {
+        recordStepResult(ptEsStepResults, stepResult);
+        return super.addPtEsDichotomyStepResult(ptEsCtStepValue, stepResult);
+    }
+
+    @Override
+    public boolean addFrEsDichotomyStepResult(double frEsCtStepValue, DichotomyStepResult stepResult) {
+        recordStepResult(frEsStepResults, stepResult);
+        return super.addFrEsDichotomyStepResult(frEsCtStepValue, stepResult);
+    }
+
+    @Override
+    public void addPtEsDichotomyStepResults(List<Pair<Double, DichotomyStepResult>> stepResults) {
+        stepResults.forEach(stepResult -> recordStepResult(ptEsStepResults, stepResult.getRight()));
+        super.addPtEsDichotomyStepResults(stepResults);
+    }
+
+    @Override
+    public void addFrEsDichotomyStepResults(List<Pair<Double, DichotomyStepResult>> stepResults) {
+        stepResults.forEach(stepResult -> recordStepResult(frEsStepResults, stepResult.getRight()));
+        super.addFrEsDichotomyStepResults(stepResults);
+    }
+
+    // speculative next values are predicted from the evaluated pairs as well
+    @Override
+    protected Index copy() {
+        CoupledIndex copy = new CoupledIndex(ptEsMinValue, frEsMinValue, getPrecision(), getMaxDichotomiesByBorder(), nextPointStrategy);
+        copyStateTo(copy);
+        copy.ptEsStepResults.addAll(ptEsStepResults);
+        copy.frEsStepResults.addAll(frEsStepResults);
+        return copy;
+    }
+
+    private static void recordStepResult(List<DichotomyStepResult> stepResults, DichotomyStepResult stepResult) {
+        if (stepResult.getCounterTradingValues() != null) {
+            stepResults.add(stepResult);
+        }
+    }
+
+    @Override
+    public boolean exitConditionIsNotMetForPtEs() {
+        return super.exitConditionIsNotMetForPtEs() && isSearching(getPtEsBracket());
+    }
+
+    @Override
+    public boolean exitConditionIsNotMetForFrEs() {
+        return super.exitConditionIsNotMetForFrEs() && isSearching(getFrEsBracket());
+    }
+
+    private boolean isSearching(Bracket bracket) {
+        return bracket == null || bracket.upperValue() - bracket.lowerValue() > getPrecision();
+    }
+
+    // Among the joint move and the moves of a single border from the best secure pair, the one with the lowest total CT not already known as unsecure
+    @Override
+    public CounterTradingValues nextValues() {
+        Bracket ptEsBracket = getPtEsBracket();
+        Bracket frEsBracket = getFrEsBracket();
+        if (ptEsBracket == null || frEsBracket == null) {
+            return super.nextValues();
+        }
+        double ptEsNextValue = exitConditionIsNotMetForPtEs() ? nextValue(ptEsBracket) : ptEsBracket.upperValue();
+        double frEsNextValue = exitConditionIsNotMetForFrEs() ? nextValue(frEsBracket) : frEsBracket.upperValue();
+        List<CounterTradingValues> candidates = List.of(
+            new CounterTradingValues(ptEsNextValue, frEsNextValue),
+            new CounterTradingValues(ptEsNextValue, frEsBracket.upperValue()),
+            new CounterTradingValues(ptEsBracket.upperValue(), frEsNextValue));
+        return candidates.stream()
+            .filter(candidate -> !isEvaluated(candidate) && !isKnownUnsecure(candidate))
+            .findFirst()
+            .orElseGet(super::nextValues);
+    }
+
+    private double nextValue(Bracket bracket) {
+        if (bracket.lowerStep().getRight() == null) {
+            return (bracket.lowerValue() + bracket.upperValue()) / 2;
+        }
+        return nextPointStrategy.nextValue(bracket.lowerStep(), bracket.upperStep());
+    }
+
+    // Upper values of both border brackets, each secure with the other border CT held at its best secure value: the pair itself may not be evaluated yet
+    // once both borders met their exit condition, null before a secure pair is known
+    public CounterTradingValues getBracketsUpperValues() {
+        Bracket ptEsBracket = getPtEsBracket();
+        Bracket frEsBracket = getFrEsBracket();
+        if (ptEsBracket == null || frEsBracket == null) {
+            return null;
+        }
+        return new CounterTradingValues(ptEsBracket.upperValue(), frEsBracket.upperValue());
+    }
+
+    public boolean isEvaluated(CounterTradingValues counterTradingValues) {
+        return ptEsStepResults.stream().anyMatch(stepResult -> stepResult.getCounterTradingValues().equals(counterTradingValues));
+    }
+
+    private boolean isKnownUnsecure(CounterTradingValues counterTradingValues) {
+        return ptEsStepResults.stream().anyMatch(stepResult -> !stepResult.isSecure() && dominates(stepResult.getCounterTradingValues(), counterTradingValues))
+            || frEsStepResults.stream().anyMatch(stepResult -> !stepResult.isSecure() && dominates(stepResult.getCounterTradingValues(), counterTradingValues));
+    }
+
+    private static boolean dominates(CounterTradingValues dominating, CounterTradingValues dominated) {
+        return dominating.ptEsCt() >= dominated.ptEsCt() && dominating.frEsCt() >= dominated.frEsCt();
+    }
+
+    private Bracket getPtEsBracket() {
+        return getBracket(ptEsStepResults, CounterTradingValues::ptEsCt, CounterTradingValues::frEsCt, ptEsMinValue);
+    }
+
+    private Bracket getFrEsBracket() {
+        return getBracket(frEsStepResults, CounterTradingValues::frEsCt, CounterTradingValues::ptEsCt, frEsMinValue);
+    }
+
+    // Bracket of a border with the other border CT held at its best secure value, null before a secure pair is known
+    private Bracket getBracket(List<DichotomyStepResult> stepResults, ToDoubleFunction<CounterTradingValues> borderCt, ToDoubleFunction<CounterTradingValues> otherBorderCt, double minValue) {
+        if (getBestValidDichotomyStepResult() == null) {
+            return null;
+        }
+        double otherBorderBestCt = otherBorderCt.applyAsDouble(getBestValidDichotomyStepResult().getCounterTradingValues());
+        Pair<Double, DichotomyStepResult> upperStep = null;
+        for (DichotomyStepResult stepResult : stepResults) {
+            double ct = borderCt.applyAsDouble(stepResult.getCounterTradingValues());
+            if (stepResult.isSecure() && otherBorderCt.applyAsDouble(stepResult.getCounterTradingValues()) <= otherBorderBestCt && (upperStep == null || ct < upperStep.getLeft())) {
+                upperStep = Pair.of(ct, stepResult);
+            }
+        }
+        if (upperStep == null) {
+            return null;
+        }
+        Pair<Double, DichotomyStepResult> lowerStep = Pair.of(minValue, null);
+        for (DichotomyStepResult stepResult : stepResults) {
+            double ct = borderCt.applyAsDouble(stepResult.getCounterTradingValues());
+            if (!stepResult.isSecure() && otherBorderCt.applyAsDouble(stepResult.getCounterTradingValues()) >= otherBorderBestCt && ct >= lowerStep.getLeft() && ct < upperStep.getLeft()) {
+                lowerStep = Pair.of(ct, stepResult);
+            }
+        }
+        return new Bracket(lowerStep, upperStep);
+    }
+
+    private record Bracket(Pair<Double, DichotomyStepResult> lowerStep, Pair<Double, DichotomyStepResult> upperStep) {
+        double lowerValue() {
+            return lowerStep.getLeft();
+        }
+
+        double upperValue() {
+            return upperStep.getLeft();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+// One step at a time, PT-ES and FR-ES CT pairs bounded by the results of every evaluated pair
+class CoupledSearch extends SequentialSearch {
+
+    @Override
+    public Index createIndex(double precision, double maxDichotomiesByBorder, NextPointStrategy nextPointStrategy) {
+        return new CoupledIndex(0, 0, precision, maxDichotomiesByBorder, nextPointStrategy);
+    }
+
+    // Border brackets may both be narrow enough while their upper values were never evaluated together,
+    // the pair is then validated jointly and the search goes on from it as long as it is secure
+    @Override
+    public boolean search(DichotomySteps steps, Index index) {
+        CoupledIndex coupledIndex = (CoupledIndex) index;
+        while (!super.search(steps, index)) {
+            CounterTradingValues counterTradingValues = coupledIndex.getBracketsUpperValues();
+            if (counterTradingValues == null || coupledIndex.isEvaluated(counterTradingValues)) {
+                return false;
+            }
+            steps.businessLogger().info("Jointly verifying CT values '{}' for PT-ES and '{}' for FR-ES", counterTradingValues.ptEsCt(), counterTradingValues.frEsCt());
+            if (!verifyCounterTradingValues(steps, index, counterTradingValues)) {
+                steps.businessLogger().warn("CT values found by border are not secure together, best secure CT values are kept");
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,118 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.farao_community.farao.dichotomy.api.exceptions.GlskLimitationException;
+import com.farao_community.farao.dichotomy.api.exceptions.ShiftingException;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Each border goes on with its own dichotomy as soon as its RAO returns, the other border CT being held at its lowest secure value,
+// the pair of lowest secure values found is then validated jointly, sequential steps going on if it is not secure
+class DecoupledSearch extends SequentialSearch {
+
+    @Override
+    public boolean search(DichotomySteps steps, Index index) {
+        if (searchByBorder(steps, index)) {
+            return true;
+        }
+        CounterTradingValues counterTradingValues = new CounterTradingValues(index.getPtEsLowestSecureStep().getLeft(), index.getFrEsLowestSecureStep().getLeft());
+        if (!counterTradingValues.equals(index.getBestValidDichotomyStepResult().getCounterTradingValues())) {
+            steps.businessLogger().info("Jointly verifying CT values '{}' for PT-ES and '{}' for FR-ES", counterTradingValues.ptEsCt(), counterTradingValues.frEsCt());
+            if (!verifyCounterTradingValues(steps, index, counterTradingValues)) {
+                steps.businessLogger().warn("CT values found by border are not secure together, best secure CT values are kept");
+            }
+        }
+        return super.search(steps, index);
+    }
+
+    // PT-ES steps run on the network and FR-ES steps on a copy of it, a border step being launched only once the previous one of the same border returned:
+    // the variants of a network are then never cloned nor removed while a RAO reads one
+    private static boolean searchByBorder(DichotomySteps steps, Index index) {
+        String taskId = steps.taskId();
+        DichotomyTimeBudget timeBudget = steps.context().timeBudget();
+        Map<DichotomyDirection, DichotomySteps> stepsByBorder = new EnumMap<>(Map.of(DichotomyDirection.PT_ES, steps, DichotomyDirection.FR_ES, steps.onNetworkCopy()));
+        Map<DichotomyDirection, BorderStep> runningSteps = new EnumMap<>(DichotomyDirection.class);
+        int launchedSteps = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            while (true) {
+                if (steps.isInterruptionAsked()) {
+                    return true;
+                }
+                if (!runningSteps.containsKey(DichotomyDirection.PT_ES) && index.exitConditionIsNotMetForPtEs() && timeBudget.hasTimeForNextStep()) {
+                    CounterTradingValues counterTradingValues = new CounterTradingValues(index.nextPtEsValue(), index.getFrEsLowestSecureStep().getLeft());
+                    runningSteps.put(DichotomyDirection.PT_ES, launchBorderStep(stepsByBorder.get(DichotomyDirection.PT_ES), DichotomyDirection.PT_ES, counterTradingValues, launchedSteps++, executor));
+                }
+                if (!runningSteps.containsKey(DichotomyDirection.FR_ES) && index.exitConditionIsNotMetForFrEs() && timeBudget.hasTimeForNextStep()) {
+                    CounterTradingValues counterTradingValues = new CounterTradingValues(index.getPtEsLowestSecureStep().getLeft(), index.nextFrEsValue());
+                    runningSteps.put(DichotomyDirection.FR_ES, launchBorderStep(stepsByBorder.get(DichotomyDirection.FR_ES), DichotomyDirection.FR_ES, counterTradingValues, launchedSteps++, executor));
+                }
+                if (runningSteps.isEmpty()) {
+                    return false;
+                }
+                CompletableFuture.anyOf(runningSteps.values().stream().map(BorderStep::future).toArray(CompletableFuture[]::new))
+                    .handle((result, throwable) -> result)
+                    .join();
+                Iterator<Map.Entry<DichotomyDirection, BorderStep>> runningStepsIterator = runningSteps.entrySet().iterator();
+                while (runningStepsIterator.hasNext()) {
+                    BorderStep step = runningStepsIterator.next().getValue();
+                    if (step.future().isDone()) {
+                        runningStepsIterator.remove();
+                        stepsByBorder.get(step.direction()).releaseStepVariant(step.variantName());
+                        timeBudget.endStep(step.start());
+                        DichotomyStepResult stepResult = DichotomySteps.joinFuture(taskId, step.future());
+                        if (step.direction() == DichotomyDirection.PT_ES) {
+                            index.addPtEsDichotomyStepResult(step.counterTradingValues().ptEsCt(), stepResult);
+                        } else {
+                            index.addFrEsDichotomyStepResult(step.counterTradingValues().frEsCt(), stepResult);
+                        }
+                    }
+                }
+            }
+        } finally {
+            runningSteps.values().forEach(step -> {
+                step.future().cancel(false);
+                steps.interruptionService().stopRaoRun(taskId, step.runId());
+            });
+            // variants can only be removed once the RAO of the stopped steps stopped using them
+            ParallelDichotomiesRunner.shutdownAndAwaitTermination(taskId, executor);
+            runningSteps.values().forEach(step -> stepsByBorder.get(step.direction()).releaseStepVariant(step.variantName()));
+            DichotomySteps frEsSteps = stepsByBorder.get(DichotomyDirection.FR_ES);
+            frEsSteps.context().networkShifter().releaseProcessedVariant(frEsSteps.context().network());
+        }
+    }
+
+    private static BorderStep launchBorderStep(DichotomySteps steps, DichotomyDirection direction, CounterTradingValues counterTradingValues, int stepNumber, ExecutorService executor) {
+        steps.businessLogger().info("Next {} step CT values are '{}' for PT-ES and '{}' for FR-ES", direction, counterTradingValues.ptEsCt(), counterTradingValues.frEsCt());
+        // step number keeps variant names and run ids unique across borders
+        String newVariantName = DichotomySteps.getNewVariantName(counterTradingValues) + "-" + stepNumber;
+        String runId = steps.taskId() + "-" + stepNumber;
+        Instant stepStart = steps.context().timeBudget().startStep();
+        try {
+            steps.shiftStep(counterTradingValues, newVariantName);
+        } catch (GlskLimitationException | ShiftingException e) {
+            ParallelDichotomiesResult failedStepResult = steps.failedStep(counterTradingValues, e);
+            return new BorderStep(direction, counterTradingValues, null, runId, stepStart, CompletableFuture.completedFuture(
+                direction == DichotomyDirection.PT_ES ? failedStepResult.getPtEsResult() : failedStepResult.getFrEsResult()));
+        }
+        steps.context().network().getVariantManager().setWorkingVariant(steps.context().initialVariant());
+        steps.interruptionService().registerRaoRun(steps.taskId(), runId);
+        CompletableFuture<DichotomyStepResult> future = steps.parallelDichotomiesRunner().submitBorder(direction, () -> {
+            try {
+                // only this border reads the network, it is exported by the validation
+                return steps.validateBorder(direction, newVariantName, runId, counterTradingValues, null);
+            } finally {
+                steps.interruptionService().unregisterRaoRun(steps.taskId(), runId);
+            }
+        }, executor);
+        return new BorderStep(direction, counterTradingValues, newVariantName, runId, stepStart, future);
+    }
+
+    private record BorderStep(DichotomyDirection direction, CounterTradingValues counterTradingValues, String variantName, String runId, Instant start, CompletableFuture<DichotomyStepResult> future) {
+    }
+}
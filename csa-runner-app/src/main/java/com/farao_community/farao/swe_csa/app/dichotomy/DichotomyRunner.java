@@ -2,17 +2,15 @@ package com.farao_community.farao.swe_csa.app.dichotomy;
 
 import com.farao_community.farao.dichotomy.api.exceptions.GlskLimitationException;
 import com.farao_community.farao.dichotomy.api.exceptions.ShiftingException;
-import com.farao_community.farao.dichotomy.api.results.ReasonInvalid;
 import com.farao_community.farao.gridcapa_swe_commons.shift.CountryBalanceComputation;
-import com.farao_community.farao.rao_runner.api.exceptions.RaoRunnerException;
-import com.farao_community.farao.swe_csa.api.JsonApiConverter;
 import com.farao_community.farao.swe_csa.api.exception.CsaInvalidDataException;
 import com.farao_community.farao.swe_csa.api.resource.CsaRequest;
-import com.farao_community.farao.swe_csa.api.resource.CsaResponse;
 import com.farao_community.farao.swe_csa.api.resource.Status;
 import com.farao_community.farao.swe_csa.app.*;
 import com.farao_community.farao.swe_csa.app.s3.S3ArtifactsAdapter;
+import com.farao_community.farao.swe_csa.app.shift.GlskHeadroomIndex;
 import com.farao_community.farao.swe_csa.app.shift.ShiftDispatcher;
+import com.farao_community.farao.swe_csa.app.shift.SweCsaZonalData;
 import com.powsybl.glsk.commons.CountryEICode;
 import com.powsybl.glsk.commons.ZonalData;
 import com.powsybl.iidm.modification.scalable.Scalable;
@@ -24,6 +22,7 @@ import com.powsybl.openrao.data.crac.api.rangeaction.CounterTradeRangeAction;
 import com.powsybl.openrao.data.raoresult.api.RaoResult;
 import com.powsybl.openrao.raoapi.parameters.RaoParameters;
 import com.powsybl.openrao.raoapi.parameters.extensions.LoadFlowAndSensitivityParameters;
+import jakarta.annotation.PostConstruct;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
@@ -31,9 +30,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,23 +46,65 @@ public class DichotomyRunner {
     private double indexPrecision;
     @Value("${dichotomy-parameters.index.max-iterations-by-border}")
     private double maxDichotomiesByBorder;
+    @Value("${dichotomy-parameters.index.next-point-strategy:BISECTION}")
+    private String nextPointStrategy = "BISECTION";
+    @Value("${csa-runner.dichotomy.search-mode:SEQUENTIAL}")
+    private SearchMode searchMode = SearchMode.SEQUENTIAL;
+    @Value("${dichotomy-parameters.index.points-by-border:3}")
+    private int pointsByBorder = 3;
+    @Value("${dichotomy-parameters.speculative.pool-size:5}")
+    private int speculativePoolSize = 5;
+    @Value("${dichotomy-parameters.index.margin-threshold:0}")
+    private double marginThreshold;
+    @Value("${dichotomy-parameters.index.refined-precision:0}")
+    private double refinedPrecision;
+    @Value("${dichotomy-parameters.time-budget.enabled:false}")
+    private boolean timeBudgetEnabled;
+    @Value("${dichotomy-parameters.time-budget.safety-factor:1.5}")
+    private double timeBudgetSafetyFactor;
+    @Value("${csa-runner.async-time-out:4500000}")
+    private long asyncTimeOut;
+    @Value("${dichotomy-parameters.estimate-and-verify.enabled:false}")
+    private boolean estimateAndVerifyEnabled;
+    @Value("${dichotomy-parameters.estimate-and-verify.headroom:50}")
+    private double estimateHeadroom;
+    @Value("${dichotomy-parameters.warm-start.margin:200}")
+    private double warmStartMargin;
+    @Value("${dichotomy-parameters.galloping.initial-counter-trading:100}")
+    private double gallopingInitialCounterTrading;
+    @Value("${dichotomy-parameters.concurrent-bracket-probes:false}")
+    private boolean concurrentBracketProbes;
+    @Value("${dichotomy-parameters.shift.incremental-load-flow:false}")
+    private boolean incrementalLoadFlow;
+    @Value("${dichotomy-parameters.shift.jacobian-correction:false}")
+    private boolean jacobianCorrection;
+    @Value("${dichotomy-parameters.shift.dc-pre-shift:false}")
+    private boolean dcPreShift;
+    @Value("${dichotomy-parameters.shift.reuse-processed-variant:false}")
+    private boolean reuseProcessedVariant;
+    @Value("${dichotomy-parameters.shift.injection-journal:false}")
+    private boolean injectionJournal;
+    @Value("${dichotomy-parameters.shift.learned-estimate:false}")
+    private boolean learnedEstimate;
+    @Value("${dichotomy-parameters.shift.glsk-headroom-index:false}")
+    private boolean glskHeadroomIndexEnabled;
+    @Value("${dichotomy-parameters.shift.compiled-scaling-plan:false}")
+    private boolean compiledScalingPlan;
     private final SweCsaRaoValidator sweCsaRaoValidator;
-    private final ResultHelper resultHelper;
     private final FileImporter fileImporter;
     private final FileExporter fileExporter;
     private final InterruptionService interruptionService;
     private final StreamBridge streamBridge;
     private final S3ArtifactsAdapter s3ArtifactsAdapter;
-    private final JsonApiConverter jsonApiConverter = new JsonApiConverter();
     private final Logger businessLogger;
     private final ParallelDichotomiesRunner parallelDichotomiesRunner;
+    private final CounterTradingHistoryStore counterTradingHistoryStore;
 
     private static final String ES_FR = "ES_FR";
     private static final String ES_PT = "ES_PT";
 
-    public DichotomyRunner(SweCsaRaoValidator sweCsaRaoValidator, FileImporter fileImporter, FileExporter fileExporter, InterruptionService interruptionService, StreamBridge streamBridge, S3ArtifactsAdapter s3ArtifactsAdapter, Logger businessLogger, ParallelDichotomiesRunner parallelDichotomiesRunner) {
+    public DichotomyRunner(SweCsaRaoValidator sweCsaRaoValidator, FileImporter fileImporter, FileExporter fileExporter, InterruptionService interruptionService, StreamBridge streamBridge, S3ArtifactsAdapter s3ArtifactsAdapter, Logger businessLogger, ParallelDichotomiesRunner parallelDichotomiesRunner, CounterTradingHistoryStore counterTradingHistoryStore) {
         this.sweCsaRaoValidator = sweCsaRaoValidator;
-        this.resultHelper = new ResultHelper();
         this.fileImporter = fileImporter;
         this.fileExporter = fileExporter;
         this.interruptionService = interruptionService;
@@ -68,9 +112,48 @@ public class DichotomyRunner {
         this.s3ArtifactsAdapter = s3ArtifactsAdapter;
         this.businessLogger = businessLogger;
         this.parallelDichotomiesRunner = parallelDichotomiesRunner;
+        this.counterTradingHistoryStore = counterTradingHistoryStore;
+    }
+
+    // Settings the search mode cannot run with fail at startup instead of being ignored
+    @PostConstruct
+    public void validateConfiguration() {
+        // fails on an unknown strategy name
+        NextPointStrategy configuredNextPointStrategy = NextPointStrategy.fromName(nextPointStrategy);
+        if (searchMode == SearchMode.SPECULATIVE && configuredNextPointStrategy.usesStepMargins()) {
+            // next steps of a strategy using the step margins cannot be predicted, every speculative step would be cancelled
+            throw new IllegalArgumentException(String.format("%s search mode cannot predict next steps of %s next point strategy", searchMode, nextPointStrategy));
+        }
+        if (searchMode == SearchMode.SPECULATIVE && speculativePoolSize < 1) {
+            throw new IllegalArgumentException(String.format("%s search mode needs a pool of at least 1 thread, %d configured", searchMode, speculativePoolSize));
+        }
+        if (searchMode == SearchMode.MULTI_POINT && pointsByBorder < 2) {
+            throw new IllegalArgumentException(String.format("%s search mode needs at least 2 points by border, %d configured", searchMode, pointsByBorder));
+        }
+        if (searchMode == SearchMode.GALLOPING && gallopingInitialCounterTrading <= 0) {
+            throw new IllegalArgumentException(String.format("%s search mode needs a positive initial counter trading, %s configured", searchMode, gallopingInitialCounterTrading));
+        }
+        if (concurrentBracketProbes && (searchMode == SearchMode.GALLOPING || searchMode == SearchMode.WARM_START)) {
+            throw new IllegalArgumentException(String.format("%s search mode replaces the maximum counter trading probe, which then cannot be validated with the input network", searchMode));
+        }
+        businessLogger.info("Dichotomy search mode: {}", searchMode);
     }
 
     public FinalResult runDichotomy(CsaRequest csaRequest, String ptEsRaoResultDestinationPath, String frEsRaoResultDestinationPath) throws GlskLimitationException, ShiftingException {
+        return runDichotomy(csaRequest, ptEsRaoResultDestinationPath, frEsRaoResultDestinationPath, Instant.now());
+    }
+
+    // time budget is counted from the reception of the request, the async time out of the caller starting then
+    public FinalResult runDichotomy(CsaRequest csaRequest, String ptEsRaoResultDestinationPath, String frEsRaoResultDestinationPath, Instant requestReceptionInstant) throws GlskLimitationException, ShiftingException {
+        try {
+            return computeDichotomy(csaRequest, ptEsRaoResultDestinationPath, frEsRaoResultDestinationPath, requestReceptionInstant);
+        } finally {
+            fileExporter.clearNetworkArtifactIndex(csaRequest.getId());
+        }
+    }
+
+    private FinalResult computeDichotomy(CsaRequest csaRequest, String ptEsRaoResultDestinationPath, String frEsRaoResultDestinationPath, Instant requestReceptionInstant) throws GlskLimitationException, ShiftingException {
+        DichotomyTimeBudget timeBudget = timeBudgetEnabled ? new DichotomyTimeBudget(Clock.systemUTC(), requestReceptionInstant, Duration.ofMillis(asyncTimeOut), timeBudgetSafetyFactor) : DichotomyTimeBudget.unbounded();
         RaoParameters raoParameters = RaoParameters.load();
         Instant instant = Instant.parse(csaRequest.getBusinessTimestamp());
         String raoParametersUrl = fileImporter.uploadRaoParameters(instant);
@@ -95,6 +178,21 @@ public class DichotomyRunner {
         double expPtEs0 = -expEsPt0;
         businessLogger.info("Initial exchanges: PT->ES: {}, FR->ES: {}", expPtEs0, expFrEs0);
 
+        WarmStartLoadFlow warmStartLoadFlow = incrementalLoadFlow ? new WarmStartLoadFlow(LoadFlowAndSensitivityParameters.getSensitivityWithLoadFlowParameters(raoParameters).getLoadFlowParameters()) : null;
+        ShiftDispatcher shiftDispatcher = new ShiftDispatcher(initialNetPositions);
+        shiftDispatcher.setLearnedEstimate(learnedEstimate);
+        SweCsaNetworkShifter networkShifter = new SweCsaNetworkShifter(scalableZonalData, initialExchanges.get(ES_FR), initialExchanges.get(ES_PT), shiftDispatcher, warmStartLoadFlow);
+        networkShifter.setJacobianCorrection(jacobianCorrection);
+        networkShifter.setDcPreShift(dcPreShift);
+        networkShifter.setReuseProcessedVariant(reuseProcessedVariant);
+        networkShifter.setInjectionJournal(injectionJournal);
+        if (compiledScalingPlan) {
+            networkShifter.setCompiledScalingPlans(SweCsaZonalData.getScalingPlans(network, scalableZonalData));
+        }
+        StepContext context = new StepContext(csaRequest, ptEsRaoResultDestinationPath, frEsRaoResultDestinationPath, raoParameters, raoParametersUrl, network, cracPtEs, cracFrEs, scalableZonalData, initialVariant, networkShifter, timeBudget);
+        DichotomySteps steps = new DichotomySteps(context, refinedPrecision, sweCsaRaoValidator, parallelDichotomiesRunner, interruptionService, fileExporter, s3ArtifactsAdapter, streamBridge, businessLogger);
+        DichotomySearch search = createSearch();
+
         CounterTradingValues minCounterTradingValues = new CounterTradingValues(0, 0);
         CounterTradeRangeAction ctRaFrEs;
         CounterTradeRangeAction ctRaEsFr;
@@ -109,7 +207,7 @@ public class DichotomyRunner {
         } catch (CsaInvalidDataException e) {
             businessLogger.warn(e.getMessage());
             businessLogger.warn("No counter trading will be done, only input network will be checked by rao");
-            ParallelDichotomiesResult parallelDichotomiesResult = supplyParallelDichotomiesResult(csaRequest, raoParameters, raoParametersUrl, network, cracPtEs, cracFrEs, scalableZonalData, minCounterTradingValues);
+            ParallelDichotomiesResult parallelDichotomiesResult = steps.validateInputNetwork();
             RaoResult ptEsRaoResult = parallelDichotomiesResult.getPtEsResult().getRaoResult();
             RaoResult frEsRaoResult = parallelDichotomiesResult.getFrEsResult().getRaoResult();
             fileExporter.saveRaoResultInArtifact(ptEsRaoResultDestinationPath, ptEsRaoResult, cracPtEs);
@@ -120,128 +218,140 @@ public class DichotomyRunner {
         // best case no counter trading , no scaling
         businessLogger.info("Starting Counter trading algorithm by validating input network without scaling");
         String noCtVariantName = "no-ct-PT-ES-0_FR-ES-0";
-        setWorkingVariant(network, initialVariant, noCtVariantName);
+        double ctPtEsMax = getMaxCounterTrading(ctRaPtEs, ctRaEsPt, expPtEs0, DichotomyDirection.PT_ES.toString());
+        double ctFrEsMax = getMaxCounterTrading(ctRaFrEs, ctRaEsFr, expFrEs0, DichotomyDirection.FR_ES.toString());
+        GlskHeadroomIndex glskHeadroomIndex = glskHeadroomIndexEnabled ? computeGlskHeadroomIndex(network, scalableZonalData) : null;
+        if (glskHeadroomIndex != null) {
+            networkShifter.setGlskHeadroomIndex(glskHeadroomIndex);
+            // maximum CT of both borders is shifted at once, Spanish headroom is then shared between them
+            CounterTradingValues glskMaxCounterTradingValues = glskHeadroomIndex.getMaxCounterTradingValues(new CounterTradingValues(ctPtEsMax, ctFrEsMax),
+                initialNetPositions.get(Country.PT.getName()), initialNetPositions.get(Country.FR.getName()));
+            ctPtEsMax = clampToGlskHeadroom(ctPtEsMax, glskMaxCounterTradingValues.ptEsCt(), DichotomyDirection.PT_ES.toString());
+            ctFrEsMax = clampToGlskHeadroom(ctFrEsMax, glskMaxCounterTradingValues.frEsCt(), DichotomyDirection.FR_ES.toString());
+        }
+        ParallelDichotomiesResult noCtParallelDichotomiesResult = null;
+        ParallelDichotomiesResult concurrentMaxCtParallelDichotomiesResult = null;
+        Instant noCtStepStart = timeBudget.startStep();
+        if (concurrentBracketProbes) {
+            businessLogger.info("Testing concurrently input network and Counter trading worst case by scaling to maximum: CT PT-ES: '{}', and CT FR-ES: '{}'", ctPtEsMax, ctFrEsMax);
+            for (ParallelDichotomiesResult bracketProbeResult : steps.shiftAndValidateConcurrently(List.of(minCounterTradingValues, new CounterTradingValues(ctPtEsMax, ctFrEsMax)), roundResults -> { })) {
+                if (bracketProbeResult.getCounterTradingValues().equals(minCounterTradingValues)) {
+                    noCtParallelDichotomiesResult = bracketProbeResult;
+                } else if (!DichotomySteps.isFailed(bracketProbeResult)) {
+                    // a maximum counter trading that cannot be shifted is shifted again below to report the failure
+                    concurrentMaxCtParallelDichotomiesResult = bracketProbeResult;
+                }
+            }
+        } else {
+            steps.cloneInitialVariant(noCtVariantName);
 
-        ParallelDichotomiesResult noCtParallelDichotomiesResult = supplyParallelDichotomiesResult(csaRequest, raoParameters, raoParametersUrl, network, cracPtEs, cracFrEs, scalableZonalData, minCounterTradingValues);
+            noCtParallelDichotomiesResult = steps.validateInputNetwork();
 
-        resetToInitialVariant(network, initialVariant, noCtVariantName);
+            steps.resetToInitialVariant(noCtVariantName);
+        }
+        timeBudget.endStep(noCtStepStart);
 
         if (noCtParallelDichotomiesResult.getPtEsResult().getRaoResult().isSecure(PhysicalParameter.FLOW) && noCtParallelDichotomiesResult.getFrEsResult().getRaoResult().isSecure(PhysicalParameter.FLOW)) {
             businessLogger.info("Input network is secure no need for counter trading");
             fileExporter.saveRaoResultInArtifact(ptEsRaoResultDestinationPath, noCtParallelDichotomiesResult.getPtEsResult().getRaoResult(), cracPtEs);
             fileExporter.saveRaoResultInArtifact(frEsRaoResultDestinationPath, noCtParallelDichotomiesResult.getFrEsResult().getRaoResult(), cracFrEs);
+            networkShifter.releaseProcessedVariant(network);
             return FinalResult.fromDichotomyStepResults(noCtParallelDichotomiesResult.getPtEsResult(), noCtParallelDichotomiesResult.getFrEsResult());
         } else {
             // initial network not secure, try worst case maximum counter trading
-            double ctPtEsMax = getMaxCounterTrading(ctRaPtEs, ctRaEsPt, expPtEs0, DichotomyDirection.PT_ES.toString());
-            double ctFrEsMax = getMaxCounterTrading(ctRaFrEs, ctRaEsFr, expFrEs0, DichotomyDirection.FR_ES.toString());
 
             double ctPtEsUpperBound = noCtParallelDichotomiesResult.getPtEsResult().getRaoResult().isSecure(PhysicalParameter.FLOW) ? 0 : ctPtEsMax;
             double ctFrEsUpperBound = noCtParallelDichotomiesResult.getFrEsResult().getRaoResult().isSecure(PhysicalParameter.FLOW) ? 0 : ctFrEsMax;
             CounterTradingValues maxCounterTradingValues = new CounterTradingValues(ctPtEsUpperBound, ctFrEsUpperBound);
-            businessLogger.info("Testing Counter trading worst case by scaling to maximum: CT PT-ES: '{}', and CT FR-ES: '{}'", ctPtEsUpperBound, ctFrEsUpperBound);
-
-            String maxCtVariantName = getNewVariantName(maxCounterTradingValues);
-            setWorkingVariant(network, initialVariant, maxCtVariantName);
-
-            SweCsaNetworkShifter networkShifter = new SweCsaNetworkShifter(scalableZonalData, initialExchanges.get(ES_FR), initialExchanges.get(ES_PT), new ShiftDispatcher(initialNetPositions));
-            networkShifter.applyCounterTrading(maxCounterTradingValues, network, raoParameters);
-
-            ParallelDichotomiesResult maxCtParallelDichotomiesResult = supplyParallelDichotomiesResult(csaRequest, raoParameters, raoParametersUrl, network, cracPtEs, cracFrEs, scalableZonalData, maxCounterTradingValues);
-
-            resetToInitialVariant(network, initialVariant, maxCtVariantName);
+            Index index = search.createIndex(indexPrecision, maxDichotomiesByBorder, NextPointStrategy.fromName(nextPointStrategy));
+            index.setMarginThreshold(marginThreshold);
+            index.addPtEsDichotomyStepResult(0, noCtParallelDichotomiesResult.getPtEsResult());
+            index.addFrEsDichotomyStepResult(0, noCtParallelDichotomiesResult.getFrEsResult());
+
+            ParallelDichotomiesResult maxCtParallelDichotomiesResult = search.findSecureBound(steps, index, maxCounterTradingValues);
+            if (search.isInterrupted()) {
+                businessLogger.info("Interruption asked for task {} before any secure counter trading was found", csaRequest.getId());
+                networkShifter.releaseProcessedVariant(network);
+                return new FinalResult(Pair.of(null, Status.INTERRUPTED_UNSECURE), Pair.of(null, Status.INTERRUPTED_UNSECURE));
+            }
+            if (maxCtParallelDichotomiesResult == null) {
+                if (concurrentMaxCtParallelDichotomiesResult != null && concurrentMaxCtParallelDichotomiesResult.getCounterTradingValues().equals(maxCounterTradingValues)) {
+                    maxCtParallelDichotomiesResult = concurrentMaxCtParallelDichotomiesResult;
+                } else {
+                    businessLogger.info("Testing Counter trading worst case by scaling to maximum: CT PT-ES: '{}', and CT FR-ES: '{}'", ctPtEsUpperBound, ctFrEsUpperBound);
+
+                    Instant maxCtStepStart = timeBudget.startStep();
+                    String maxCtVariantName = DichotomySteps.getNewVariantName(maxCounterTradingValues);
+                    // a maximum counter trading that cannot be shifted fails the whole computation
+                    steps.shiftStep(maxCounterTradingValues, maxCtVariantName);
+                    try {
+                        maxCtParallelDichotomiesResult = steps.validateStep(maxCtVariantName, csaRequest.getId(), maxCounterTradingValues);
+                    } finally {
+                        steps.resetToInitialVariant(maxCtVariantName);
+                        timeBudget.endStep(maxCtStepStart);
+                    }
+                }
+                index.addPtEsDichotomyStepResult(ctPtEsUpperBound, maxCtParallelDichotomiesResult.getPtEsResult());
+                index.addFrEsDichotomyStepResult(ctFrEsUpperBound, maxCtParallelDichotomiesResult.getFrEsResult());
+            }
 
             if (!maxCtParallelDichotomiesResult.getPtEsResult().isSecure() || !maxCtParallelDichotomiesResult.getFrEsResult().isSecure()) {
                 businessLogger.error("Maximum CT value cannot secure this case");
                 fileExporter.saveRaoResultInArtifact(ptEsRaoResultDestinationPath, maxCtParallelDichotomiesResult.getPtEsResult().getRaoResult(), cracPtEs);
                 fileExporter.saveRaoResultInArtifact(frEsRaoResultDestinationPath, maxCtParallelDichotomiesResult.getFrEsResult().getRaoResult(), cracFrEs);
+                networkShifter.releaseProcessedVariant(network);
                 return FinalResult.fromDichotomyStepResults(maxCtParallelDichotomiesResult.getPtEsResult(), maxCtParallelDichotomiesResult.getFrEsResult());
             } else {
                 businessLogger.info("Best case in unsecure, worst case is secure, trying to find optimum in between using dichotomy");
-                Index index = new Index(0, 0, indexPrecision, maxDichotomiesByBorder);
-
-                index.addPtEsDichotomyStepResult(0, noCtParallelDichotomiesResult.getPtEsResult());
-                index.addPtEsDichotomyStepResult(ctPtEsUpperBound, maxCtParallelDichotomiesResult.getPtEsResult());
-
-                index.addFrEsDichotomyStepResult(0, noCtParallelDichotomiesResult.getFrEsResult());
-                index.addFrEsDichotomyStepResult(ctFrEsUpperBound, maxCtParallelDichotomiesResult.getFrEsResult());
-
                 index.setBestValidDichotomyStepResult(maxCtParallelDichotomiesResult);
-                return processDichotomy(csaRequest, ptEsRaoResultDestinationPath, frEsRaoResultDestinationPath, raoParameters, raoParametersUrl, network, cracPtEs, cracFrEs, scalableZonalData, initialVariant, networkShifter, index);
+                return processDichotomy(steps, search, index);
             }
         }
     }
 
-    private FinalResult processDichotomy(CsaRequest csaRequest, String ptEsRaoResultDestinationPath, String frEsRaoResultDestinationPath, RaoParameters raoParameters, String raoParametersUrl, Network network, Crac cracPtEs, Crac cracFrEs, ZonalData<Scalable> scalableZonalDataFilteredForSweCountries, String initialVariant, SweCsaNetworkShifter networkShifter, Index index) {
+    private FinalResult processDichotomy(DichotomySteps steps, DichotomySearch search, Index index) {
+        StepContext context = steps.context();
         boolean interrupted = false;
-        while (index.exitConditionIsNotMetForPtEs() || index.exitConditionIsNotMetForFrEs()) {
-            if (interruptionService.getTasksToInterrupt().remove(csaRequest.getId())) {
-                businessLogger.info("Interruption asked for task {}, best secure situation at current time will be returned", csaRequest.getId());
-                interrupted = true;
-                break;
-            }
-            CounterTradingValues counterTradingValues = index.nextValues();
-            DichotomyStepResult ptEsCtStepResult;
-            DichotomyStepResult frEsCtStepResult;
-
-            String newVariantName = getNewVariantName(counterTradingValues);
-            try {
-                businessLogger.info("Next CT values are '{}' for PT-ES and '{}' for FR-ES", counterTradingValues.ptEsCt(), counterTradingValues.frEsCt());
-                setWorkingVariant(network, initialVariant, newVariantName);
-                networkShifter.applyCounterTrading(counterTradingValues, network, raoParameters);
-
-                ParallelDichotomiesResult parallelDichotomiesResult = supplyParallelDichotomiesResult(csaRequest, raoParameters, raoParametersUrl, network, cracPtEs, cracFrEs, scalableZonalDataFilteredForSweCountries, counterTradingValues);
-
-                ptEsCtStepResult = parallelDichotomiesResult.getPtEsResult();
-                frEsCtStepResult = parallelDichotomiesResult.getFrEsResult();
-                boolean ptEsCtSecure = index.addPtEsDichotomyStepResult(counterTradingValues.ptEsCt(), ptEsCtStepResult);
-                boolean frEsCtSecure = index.addFrEsDichotomyStepResult(counterTradingValues.frEsCt(), frEsCtStepResult);
-                if (ptEsCtSecure && frEsCtSecure) {
-                    index.setBestValidDichotomyStepResult(parallelDichotomiesResult);
-                    // enhance rao result with monitoring result + CT values and send notification
-                    uploadFinalResult(raoParameters, network, cracPtEs, index, ptEsCtStepResult.getRaoResult(), ptEsRaoResultDestinationPath, "PT-ES");
-                    uploadFinalResult(raoParameters, network, cracFrEs, index, frEsCtStepResult.getRaoResult(), frEsRaoResultDestinationPath, "FR-ES");
-                    CsaResponse csaResponse = new CsaResponse(csaRequest.getId(), Status.STILL_RUNNING_SECURE.toString(), s3ArtifactsAdapter.generatePreSignedUrl(ptEsRaoResultDestinationPath), Status.STILL_RUNNING_SECURE.toString(), s3ArtifactsAdapter.generatePreSignedUrl(frEsRaoResultDestinationPath));
-                    streamBridge.send(RESPONSE_BRIDGE_NAME, jsonApiConverter.toJsonMessage(csaResponse, CsaResponse.class));
-                }
-            } catch (GlskLimitationException e) {
-                businessLogger.warn("GLSK limits have been reached with CT of '{}' for PT-ES and '{}' for FR-ES", counterTradingValues.ptEsCt(), counterTradingValues.frEsCt());
-                ptEsCtStepResult = DichotomyStepResult.fromFailure(ReasonInvalid.GLSK_LIMITATION, "PT-ES border: " + e.getMessage(), counterTradingValues);
-                frEsCtStepResult = DichotomyStepResult.fromFailure(ReasonInvalid.GLSK_LIMITATION, "FR-ES border: " + e.getMessage(), counterTradingValues);
-                index.addPtEsDichotomyStepResult(counterTradingValues.ptEsCt(), ptEsCtStepResult);
-                index.addFrEsDichotomyStepResult(counterTradingValues.frEsCt(), frEsCtStepResult);
-
-            } catch (ShiftingException | RaoRunnerException e) {
-                businessLogger.warn("Validation failed with CT of '{}' for PT-ES and '{}' for FR-ES", counterTradingValues.ptEsCt(), counterTradingValues.frEsCt());
-                ptEsCtStepResult = DichotomyStepResult.fromFailure(ReasonInvalid.VALIDATION_FAILED, "PT-ES border: " + e.getMessage(), counterTradingValues);
-                frEsCtStepResult = DichotomyStepResult.fromFailure(ReasonInvalid.VALIDATION_FAILED, "FR-ES border: " + e.getMessage(), counterTradingValues);
-                index.addPtEsDichotomyStepResult(counterTradingValues.ptEsCt(), ptEsCtStepResult);
-                index.addFrEsDichotomyStepResult(counterTradingValues.frEsCt(), frEsCtStepResult);
-            } finally {
-                resetToInitialVariant(network, initialVariant, newVariantName);
-            }
-
+        boolean estimateVerified = estimateAndVerifyEnabled && verifyEstimatedCounterTrading(steps, index);
+        if (!estimateVerified) {
+            interrupted = search.search(steps, index);
+        }
+        context.networkShifter().releaseProcessedVariant(context.network());
+        if (!interrupted) {
+            search.searchEnded(steps, index);
         }
         businessLogger.info("Dichotomy stop criterion reached, CT PT-ES: {}, CT FR-ES: {}", Math.round(index.getBestValidDichotomyStepResult().getCounterTradingValues().ptEsCt()), Math.round(index.getBestValidDichotomyStepResult().getCounterTradingValues().frEsCt()));
-        uploadFinalResult(raoParameters, network, cracPtEs, index, index.getBestValidDichotomyStepResult().getPtEsResult().getRaoResult(), ptEsRaoResultDestinationPath, "PT-ES");
-        uploadFinalResult(raoParameters, network, cracFrEs, index, index.getBestValidDichotomyStepResult().getFrEsResult().getRaoResult(), frEsRaoResultDestinationPath, "FR-ES");
+        steps.uploadResults(index, index.getBestValidDichotomyStepResult());
 
         return new FinalResult(getRaoResultStatusPair(index.getBestValidDichotomyStepResult().getPtEsResult().getRaoResult(), index, interrupted), getRaoResultStatusPair(index.getBestValidDichotomyStepResult().getFrEsResult().getRaoResult(), index, interrupted));
     }
 
-    private void uploadFinalResult(RaoParameters raoParameters, Network network, Crac crac, Index index, RaoResult raoResult, String uploadPath, String border) {
-        RaoResult finalRaoResult = raoResult;
-        if (!crac.getVoltageCnecs().isEmpty()) {
-            finalRaoResult = resultHelper.updateRaoResultWithVoltageMonitoring(network, crac, raoResult, raoParameters);
+    // Validates in one step the CT values estimated from the bracketing steps margins, dichotomy goes on from the updated index if they are not secure
+    private boolean verifyEstimatedCounterTrading(DichotomySteps steps, Index index) {
+        Optional<CounterTradingValues> estimatedCounterTradingValues = index.estimatedValues(estimateHeadroom);
+        if (estimatedCounterTradingValues.isEmpty() || estimatedCounterTradingValues.get().equals(index.getBestValidDichotomyStepResult().getCounterTradingValues())) {
+            businessLogger.info("Counter trading cannot be estimated from margins, running dichotomy");
+            return false;
         }
-        finalRaoResult = resultHelper.updateRaoResultWithCounterTradingRangeActions(crac, index, finalRaoResult, border);
-        fileExporter.saveRaoResultInArtifact(uploadPath, finalRaoResult, crac);
+        CounterTradingValues counterTradingValues = estimatedCounterTradingValues.get();
+        businessLogger.info("Verifying estimated CT values '{}' for PT-ES and '{}' for FR-ES", counterTradingValues.ptEsCt(), counterTradingValues.frEsCt());
+        if (SequentialSearch.verifyCounterTradingValues(steps, index, counterTradingValues)) {
+            return true;
+        }
+        businessLogger.info("Estimated CT values are not secure, running dichotomy");
+        return false;
     }
 
-    private ParallelDichotomiesResult supplyParallelDichotomiesResult(CsaRequest csaRequest, RaoParameters raoParameters, String raoParametersUrl, Network network, Crac cracPtEs, Crac cracFrEs, ZonalData<Scalable> scalableZonalData, CounterTradingValues minCounterTradingValues) {
-        Supplier<DichotomyStepResult> ptEsRaoResultSupplier = () -> sweCsaRaoValidator.validateNetworkForPortugueseBorder(network, cracPtEs, csaRequest.getPtEsCracFileUri(), scalableZonalData, raoParameters, csaRequest, raoParametersUrl, minCounterTradingValues);
-        Supplier<DichotomyStepResult> frEsRaoResultSupplier = () -> sweCsaRaoValidator.validateNetworkForFrenchBorder(network, cracFrEs, csaRequest.getFrEsCracFileUri(), scalableZonalData, raoParameters, csaRequest, raoParametersUrl, minCounterTradingValues);
-        return parallelDichotomiesRunner.run(csaRequest.getId(), minCounterTradingValues, ptEsRaoResultSupplier, frEsRaoResultSupplier);
+    private DichotomySearch createSearch() {
+        return switch (searchMode) {
+            case SEQUENTIAL -> new SequentialSearch();
+            case COUPLED -> new CoupledSearch();
+            case MULTI_POINT -> new MultiPointSearch(pointsByBorder);
+            case SPECULATIVE -> new SpeculativeSearch(speculativePoolSize);
+            case DECOUPLED -> new DecoupledSearch();
+            case GALLOPING -> new GallopingSearch(gallopingInitialCounterTrading);
+            case WARM_START -> new WarmStartSearch(counterTradingHistoryStore, warmStartMargin);
+        };
     }
 
     private Pair<RaoResult, Status> getRaoResultStatusPair(RaoResult raoResult, Index index, boolean interrupted) {
@@ -270,14 +380,21 @@ public class DichotomyRunner {
         return ctMax;
     }
 
-    private void setWorkingVariant(Network network, String initialVariant, String newVariantName) {
-        network.getVariantManager().cloneVariant(initialVariant, newVariantName);
-        network.getVariantManager().setWorkingVariant(newVariantName);
+    private GlskHeadroomIndex computeGlskHeadroomIndex(Network network, ZonalData<Scalable> scalableZonalData) {
+        try {
+            return GlskHeadroomIndex.compute(network, scalableZonalData);
+        } catch (ShiftingException e) {
+            businessLogger.warn("GLSK headroom could not be computed, infeasible counter trading will be detected while shifting: {}", e.getMessage());
+            return null;
+        }
     }
 
-    private void resetToInitialVariant(Network network, String initialVariant, String newVariantName) {
-        network.getVariantManager().setWorkingVariant(initialVariant);
-        network.getVariantManager().removeVariant(newVariantName);
+    private double clampToGlskHeadroom(double ctMax, double glskMaxCounterTrading, String borderName) {
+        if (glskMaxCounterTrading < ctMax) {
+            businessLogger.warn("Maximum counter trading {} '{}' is reduced to GLSK headroom '{}'", borderName, ctMax, glskMaxCounterTrading);
+            return glskMaxCounterTrading;
+        }
+        return ctMax;
     }
 
     private CounterTradeRangeAction getCounterTradeRangeActionByCountries(Crac crac, Country exportingCountry, Country importingCountry) {
@@ -289,10 +406,6 @@ public class DichotomyRunner {
         throw new CsaInvalidDataException(MDC.get("gridcapaTaskId"), String.format("Crac should contain 4 counter trading remedial actions for csa swe process, Two CT RAs by border, and couldn't find CT RA for '%s' as exporting country and '%s' as importing country", exportingCountry.getName(), importingCountry.getName()));
     }
 
-    private String getNewVariantName(CounterTradingValues counterTradingValues) {
-        return String.format("network-ScaledBy-%s", counterTradingValues.print());
-    }
-
     public void setIndexPrecision(double indexPrecision) {
         this.indexPrecision = indexPrecision;
     }
@@ -300,4 +413,88 @@ public class DichotomyRunner {
     public void setMaxDichotomiesByBorder(double maxDichotomiesByBorder) {
         this.maxDichotomiesByBorder = maxDichotomiesByBorder;
     }
+
+    public void setNextPointStrategy(String nextPointStrategy) {
+        this.nextPointStrategy = nextPointStrategy;
+    }
+
+    public void setMarginThreshold(double marginThreshold) {
+        this.marginThreshold = marginThreshold;
+    }
+
+    public void setRefinedPrecision(double refinedPrecision) {
+        this.refinedPrecision = refinedPrecision;
+    }
+
+    public void setTimeBudgetEnabled(boolean timeBudgetEnabled) {
+        this.timeBudgetEnabled = timeBudgetEnabled;
+    }
+
+    public void setAsyncTimeOut(long asyncTimeOut) {
+        this.asyncTimeOut = asyncTimeOut;
+    }
+
+    public void setEstimateAndVerifyEnabled(boolean estimateAndVerifyEnabled) {
+        this.estimateAndVerifyEnabled = estimateAndVerifyEnabled;
+    }
+
+    public void setEstimateHeadroom(double estimateHeadroom) {
+        this.estimateHeadroom = estimateHeadroom;
+    }
+
+    public void setWarmStartMargin(double warmStartMargin) {
+        this.warmStartMargin = warmStartMargin;
+    }
+
+    public void setGallopingInitialCounterTrading(double gallopingInitialCounterTrading) {
+        this.gallopingInitialCounterTrading = gallopingInitialCounterTrading;
+    }
+
+    public void setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+    }
+
+    public void setPointsByBorder(int pointsByBorder) {
+        this.pointsByBorder = pointsByBorder;
+    }
+
+    public void setSpeculativePoolSize(int speculativePoolSize) {
+        this.speculativePoolSize = speculativePoolSize;
+    }
+
+    public void setIncrementalLoadFlow(boolean incrementalLoadFlow) {
+        this.incrementalLoadFlow = incrementalLoadFlow;
+    }
+
+    public void setJacobianCorrection(boolean jacobianCorrection) {
+        this.jacobianCorrection = jacobianCorrection;
+    }
+
+    public void setDcPreShift(boolean dcPreShift) {
+        this.dcPreShift = dcPreShift;
+    }
+
+    public void setReuseProcessedVariant(boolean reuseProcessedVariant) {
+        this.reuseProcessedVariant = reuseProcessedVariant;
+    }
+
+    public void setInjectionJournal(boolean injectionJournal) {
+        this.injectionJournal = injectionJournal;
+    }
+
+    public void setLearnedEstimate(boolean learnedEstimate) {
+        this.learnedEstimate = learnedEstimate;
+    }
+
+    public void setGlskHeadroomIndexEnabled(boolean glskHeadroomIndexEnabled) {
+        this.glskHeadroomIndexEnabled = glskHeadroomIndexEnabled;
+    }
+
+    public void setCompiledScalingPlan(boolean compiledScalingPlan) {
+        this.compiledScalingPlan = compiledScalingPlan;
+    }
+
+    public void setConcurrentBracketProbes(boolean concurrentBracketProbes) {
+        this.concurrentBracketProbes = concurrentBracketProbes;
+    }
 }
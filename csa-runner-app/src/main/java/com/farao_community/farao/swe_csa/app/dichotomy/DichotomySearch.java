@@ -0,0 +1,27 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+// Way a search mode finds the lowest secure counter trading once the input network is known to be unsecure,
+// the dichotomy runner validating the bracket ends and the final result whatever the mode
+interface DichotomySearch {
+
+    default Index createIndex(double precision, double maxDichotomiesByBorder, NextPointStrategy nextPointStrategy) {
+        return new Index(0, 0, precision, maxDichotomiesByBorder, nextPointStrategy);
+    }
+
+    // Secure upper bound of the search found instead of validating the maximum counter trading, null to validate it
+    default ParallelDichotomiesResult findSecureBound(DichotomySteps steps, Index index, CounterTradingValues maxCounterTradingValues) {
+        return null;
+    }
+
+    // True if the secure bound search stopped on an interruption, no secure counter trading being known yet
+    default boolean isInterrupted() {
+        return false;
+    }
+
+    // Narrows the bracket of the index until the stop criterion is reached, true if the task was interrupted
+    boolean search(DichotomySteps steps, Index index);
+
+    // Called once the search stopped on its stop criterion, not when it was interrupted
+    default void searchEnded(DichotomySteps steps, Index index) {
+    }
+}
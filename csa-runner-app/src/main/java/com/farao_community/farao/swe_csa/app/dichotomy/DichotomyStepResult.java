@@ -12,6 +12,7 @@ public final class DichotomyStepResult {
     private final ReasonInvalid reasonInvalid;
     private final String failureMessage;
     private final CounterTradingValues counterTradingValues;
+    private final double worstMargin;
 
     private DichotomyStepResult(boolean isSecure, ReasonInvalid reasonInvalid, String failureMessage, CounterTradingValues counterTradingValues) {
         this.isSecure = isSecure;
@@ -20,15 +21,17 @@ public final class DichotomyStepResult {
         this.counterTradingValues = counterTradingValues;
         this.reasonInvalid = reasonInvalid;
         this.failureMessage = failureMessage;
+        this.worstMargin = Double.NaN;
     }
 
-    private DichotomyStepResult(RaoResult raoResult, boolean isSecure, RaoSuccessResponse raoSuccessResponse, CounterTradingValues counterTradingValues) {
+    private DichotomyStepResult(RaoResult raoResult, boolean isSecure, RaoSuccessResponse raoSuccessResponse, CounterTradingValues counterTradingValues, double worstMargin) {
         this.raoResult = raoResult;
         this.isSecure = isSecure;
         this.raoSuccessResponse = raoSuccessResponse;
         this.reasonInvalid = isSecure ? ReasonInvalid.NONE : ReasonInvalid.UNSECURE_AFTER_VALIDATION;
         this.counterTradingValues = counterTradingValues;
         this.failureMessage = "None";
+        this.worstMargin = worstMargin;
     }
 
     public static DichotomyStepResult fromFailure(ReasonInvalid reasonInvalid, String failureMessage, CounterTradingValues counterTradingValues) {
@@ -36,7 +39,11 @@ public final class DichotomyStepResult {
     }
 
     public static DichotomyStepResult fromNetworkValidationResult(RaoResult raoResult, boolean isSecure, RaoSuccessResponse raoResponse, CounterTradingValues counterTradingValues) {
-        return new DichotomyStepResult(raoResult, isSecure, raoResponse, counterTradingValues);
+        return fromNetworkValidationResult(raoResult, isSecure, raoResponse, counterTradingValues, Double.NaN);
+    }
+
+    public static DichotomyStepResult fromNetworkValidationResult(RaoResult raoResult, boolean isSecure, RaoSuccessResponse raoResponse, CounterTradingValues counterTradingValues, double worstMargin) {
+        return new DichotomyStepResult(raoResult, isSecure, raoResponse, counterTradingValues, worstMargin);
     }
 
     public RaoResult getRaoResult() {
@@ -70,5 +77,10 @@ public final class DichotomyStepResult {
     public boolean isSecure() {
         return isSecure;
     }
+
+    // smallest margin in ampere of the border optimized flow CNECs, NaN if unknown
+    public double getWorstMargin() {
+        return worstMargin;
+    }
 }
 
@@ -0,0 +1,321 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.farao_community.farao.dichotomy.api.exceptions.GlskLimitationException;
+import com.farao_community.farao.dichotomy.api.exceptions.ShiftingException;
+import com.farao_community.farao.dichotomy.api.results.ReasonInvalid;
+import com.farao_community.farao.swe_csa.api.JsonApiConverter;
+import com.farao_community.farao.swe_csa.api.exception.CsaInternalException;
+import com.farao_community.farao.swe_csa.api.resource.CsaRequest;
+import com.farao_community.farao.swe_csa.api.resource.CsaResponse;
+import com.farao_community.farao.swe_csa.api.resource.Status;
+import com.farao_community.farao.swe_csa.app.FileExporter;
+import com.farao_community.farao.swe_csa.app.InterruptionService;
+import com.farao_community.farao.swe_csa.app.s3.S3ArtifactsAdapter;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.serde.NetworkSerDe;
+import com.powsybl.openrao.data.crac.api.Crac;
+import com.powsybl.openrao.data.raoresult.api.RaoResult;
+import org.slf4j.Logger;
+import org.springframework.cloud.stream.function.StreamBridge;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Shifts, validates and records the steps of a request dichotomy, for the dichotomy runner and every search mode
+final class DichotomySteps {
+    private final StepContext context;
+    private final double refinedPrecision;
+    private final SweCsaRaoValidator sweCsaRaoValidator;
+    private final ParallelDichotomiesRunner parallelDichotomiesRunner;
+    private final InterruptionService interruptionService;
+    private final FileExporter fileExporter;
+    private final S3ArtifactsAdapter s3ArtifactsAdapter;
+    private final StreamBridge streamBridge;
+    private final Logger businessLogger;
+    private final ResultHelper resultHelper = new ResultHelper();
+    private final JsonApiConverter jsonApiConverter = new JsonApiConverter();
+
+    DichotomySteps(StepContext context, double refinedPrecision, SweCsaRaoValidator sweCsaRaoValidator, ParallelDichotomiesRunner parallelDichotomiesRunner, InterruptionService interruptionService,
+                   FileExporter fileExporter, S3ArtifactsAdapter s3ArtifactsAdapter, StreamBridge streamBridge, Logger businessLogger) {
+        this.context = context;
+        this.refinedPrecision = refinedPrecision;
+        this.sweCsaRaoValidator = sweCsaRaoValidator;
+        this.parallelDichotomiesRunner = parallelDichotomiesRunner;
+        this.interruptionService = interruptionService;
+        this.fileExporter = fileExporter;
+        this.s3ArtifactsAdapter = s3ArtifactsAdapter;
+        this.streamBridge = streamBridge;
+        this.businessLogger = businessLogger;
+    }
+
+    // Steps on a copy of the network, its variants can be cloned and removed while RAOs read the variants of the original network
+    DichotomySteps onNetworkCopy() {
+        Network networkCopy = NetworkSerDe.copy(context.network());
+        StepContext copyContext = new StepContext(context.csaRequest(), context.ptEsRaoResultDestinationPath(), context.frEsRaoResultDestinationPath(), context.raoParameters(), context.raoParametersUrl(),
+            networkCopy, context.cracPtEs(), context.cracFrEs(), context.scalableZonalData(), networkCopy.getVariantManager().getWorkingVariantId(), context.networkShifter().forNetworkCopy(), context.timeBudget());
+        return new DichotomySteps(copyContext, refinedPrecision, sweCsaRaoValidator, parallelDichotomiesRunner, interruptionService, fileExporter, s3ArtifactsAdapter, streamBridge, businessLogger);
+    }
+
+    StepContext context() {
+        return context;
+    }
+
+    ParallelDichotomiesRunner parallelDichotomiesRunner() {
+        return parallelDichotomiesRunner;
+    }
+
+    InterruptionService interruptionService() {
+        return interruptionService;
+    }
+
+    Logger businessLogger() {
+        return businessLogger;
+    }
+
+    String taskId() {
+        return context.csaRequest().getId();
+    }
+
+    // consumes the interruption of the task, a search mode stops at the first one
+    boolean isInterruptionAsked() {
+        if (interruptionService.getTasksToInterrupt().remove(taskId())) {
+            businessLogger.info("Interruption asked for task {}, best secure situation at current time will be returned", taskId());
+            return true;
+        }
+        return false;
+    }
+
+    boolean dichotomyShouldContinue(Index index) {
+        DichotomyTimeBudget timeBudget = context.timeBudget();
+        if (!index.exitConditionIsNotMetForPtEs() && !index.exitConditionIsNotMetForFrEs()) {
+            // precision reached, remaining time budget is spent on a finer precision
+            if (refinedPrecision <= 0 || index.getPrecision() <= refinedPrecision || !timeBudget.isBounded() || !timeBudget.hasTimeForNextStep()) {
+                return false;
+            }
+            businessLogger.info("Dichotomy precision reached with {} s of time budget left, refining precision to {}", timeBudget.getRemainingTime().toSeconds(), refinedPrecision);
+            index.setPrecision(refinedPrecision);
+            return index.exitConditionIsNotMetForPtEs() || index.exitConditionIsNotMetForFrEs();
+        }
+        if (!timeBudget.hasTimeForNextStep()) {
+            businessLogger.warn("Next dichotomy step predicted to last {} s does not fit in the {} s of time budget left, stopping dichotomy", timeBudget.getPredictedStepDuration().toSeconds(), timeBudget.getRemainingTime().toSeconds());
+            return false;
+        }
+        return true;
+    }
+
+    // Shifts the step on its own variant then validates both borders, the step result is given to the consumer before the variant is removed
+    ParallelDichotomiesResult shiftAndValidate(CounterTradingValues counterTradingValues, Consumer<ParallelDichotomiesResult> stepResultConsumer) {
+        String newVariantName = getNewVariantName(counterTradingValues);
+        Instant stepStart = context.timeBudget().startStep();
+        try {
+            shiftStep(counterTradingValues, newVariantName);
+        } catch (GlskLimitationException | ShiftingException e) {
+            ParallelDichotomiesResult failedStepResult = failedStep(counterTradingValues, e);
+            stepResultConsumer.accept(failedStepResult);
+            context.timeBudget().endStep(stepStart);
+            return failedStepResult;
+        }
+        try {
+            ParallelDichotomiesResult parallelDichotomiesResult = validateStep(newVariantName, taskId(), counterTradingValues);
+            stepResultConsumer.accept(parallelDichotomiesResult);
+            return parallelDichotomiesResult;
+        } finally {
+            resetToInitialVariant(newVariantName);
+            context.timeBudget().endStep(stepStart);
+        }
+    }
+
+    // Steps are shifted one after the other on their own variant then validated concurrently,
+    // round results, including the steps that could not be shifted, are given to the consumer before the variants are removed
+    List<ParallelDichotomiesResult> shiftAndValidateConcurrently(List<CounterTradingValues> stepsCounterTradingValues, Consumer<List<ParallelDichotomiesResult>> roundResultsConsumer) {
+        Network network = context.network();
+        return withThreadLocalVariants(() -> {
+            Map<String, CounterTradingValues> shiftedVariants = new LinkedHashMap<>();
+            List<ParallelDichotomiesResult> roundResults = new ArrayList<>();
+            try {
+                for (CounterTradingValues counterTradingValues : stepsCounterTradingValues) {
+                    String newVariantName = getNewVariantName(counterTradingValues);
+                    try {
+                        shiftStep(counterTradingValues, newVariantName);
+                        shiftedVariants.put(newVariantName, counterTradingValues);
+                    } catch (GlskLimitationException | ShiftingException e) {
+                        roundResults.add(failedStep(counterTradingValues, e));
+                    } finally {
+                        network.getVariantManager().setWorkingVariant(context.initialVariant());
+                    }
+                }
+                List<Supplier<ParallelDichotomiesResult>> stepSuppliers = shiftedVariants.entrySet().stream()
+                    .<Supplier<ParallelDichotomiesResult>>map(shiftedVariant -> () -> validateStep(shiftedVariant.getKey(), taskId(), shiftedVariant.getValue()))
+                    .toList();
+                roundResults.addAll(0, parallelDichotomiesRunner.runAll(taskId(), stepSuppliers));
+                roundResultsConsumer.accept(roundResults);
+                return roundResults;
+            } finally {
+                network.getVariantManager().setWorkingVariant(context.initialVariant());
+                shiftedVariants.keySet().forEach(network.getVariantManager()::removeVariant);
+            }
+        });
+    }
+
+    // Clones the initial variant to a new working variant shifted to the CT values, the input network values are not shifted,
+    // the variant is removed when the shift fails
+    void shiftStep(CounterTradingValues counterTradingValues, String newVariantName) throws GlskLimitationException, ShiftingException {
+        cloneInitialVariant(newVariantName);
+        if (counterTradingValues.ptEsCt() == 0 && counterTradingValues.frEsCt() == 0) {
+            return;
+        }
+        try {
+            context.networkShifter().applyCounterTrading(counterTradingValues, context.network(), context.raoParameters());
+        } catch (GlskLimitationException | ShiftingException | RuntimeException e) {
+            resetToInitialVariant(newVariantName);
+            throw e;
+        }
+    }
+
+    ParallelDichotomiesResult failedStep(CounterTradingValues counterTradingValues, Exception shiftException) {
+        ReasonInvalid reasonInvalid;
+        if (shiftException instanceof GlskLimitationException) {
+            businessLogger.warn("GLSK limits have been reached with CT of '{}' for PT-ES and '{}' for FR-ES", counterTradingValues.ptEsCt(), counterTradingValues.frEsCt());
+            reasonInvalid = ReasonInvalid.GLSK_LIMITATION;
+        } else {
+            businessLogger.warn("Validation failed with CT of '{}' for PT-ES and '{}' for FR-ES", counterTradingValues.ptEsCt(), counterTradingValues.frEsCt());
+            reasonInvalid = ReasonInvalid.VALIDATION_FAILED;
+        }
+        return new ParallelDichotomiesResult(
+            DichotomyStepResult.fromFailure(reasonInvalid, "PT-ES border: " + shiftException.getMessage(), counterTradingValues),
+            DichotomyStepResult.fromFailure(reasonInvalid, "FR-ES border: " + shiftException.getMessage(), counterTradingValues),
+            counterTradingValues);
+    }
+
+    static boolean isFailed(ParallelDichotomiesResult parallelDichotomiesResult) {
+        return parallelDichotomiesResult.getPtEsResult().isFailed() || parallelDichotomiesResult.getFrEsResult().isFailed();
+    }
+
+    // Adds the step results to the index, a step secure on both borders becomes the best one and is sent as still running result
+    void recordStepResult(Index index, ParallelDichotomiesResult parallelDichotomiesResult) {
+        if (addStepResult(index, parallelDichotomiesResult)) {
+            sendStillRunningSecureResult(index, parallelDichotomiesResult);
+        }
+    }
+
+    // Adds the step results to the index, true if the step is secure on both borders and became the best one
+    static boolean addStepResult(Index index, ParallelDichotomiesResult parallelDichotomiesResult) {
+        CounterTradingValues counterTradingValues = parallelDichotomiesResult.getCounterTradingValues();
+        boolean ptEsCtSecure = index.addPtEsDichotomyStepResult(counterTradingValues.ptEsCt(), parallelDichotomiesResult.getPtEsResult());
+        boolean frEsCtSecure = index.addFrEsDichotomyStepResult(counterTradingValues.frEsCt(), parallelDichotomiesResult.getFrEsResult());
+        if (ptEsCtSecure && frEsCtSecure) {
+            index.setBestValidDichotomyStepResult(parallelDichotomiesResult);
+            return true;
+        }
+        return false;
+    }
+
+    // Steps running at the same time use their own variant, working variant must then be thread local
+    <T> T withThreadLocalVariants(Supplier<T> concurrentSteps) {
+        boolean variantMultiThreadAccessAllowed = context.network().getVariantManager().isVariantMultiThreadAccessAllowed();
+        context.network().getVariantManager().allowVariantMultiThreadAccess(true);
+        try {
+            return concurrentSteps.get();
+        } finally {
+            context.network().getVariantManager().setWorkingVariant(context.initialVariant());
+            context.network().getVariantManager().allowVariantMultiThreadAccess(variantMultiThreadAccessAllowed);
+        }
+    }
+
+    static double getTotalCounterTrading(ParallelDichotomiesResult parallelDichotomiesResult) {
+        return Math.abs(parallelDichotomiesResult.getCounterTradingValues().ptEsCt()) + Math.abs(parallelDichotomiesResult.getCounterTradingValues().frEsCt());
+    }
+
+    void sendStillRunningSecureResult(Index index, ParallelDichotomiesResult secureResult) {
+        // enhance rao result with monitoring result + CT values and send notification
+        uploadResults(index, secureResult);
+        CsaResponse csaResponse = new CsaResponse(taskId(), Status.STILL_RUNNING_SECURE.toString(), s3ArtifactsAdapter.generatePreSignedUrl(context.ptEsRaoResultDestinationPath()), Status.STILL_RUNNING_SECURE.toString(), s3ArtifactsAdapter.generatePreSignedUrl(context.frEsRaoResultDestinationPath()));
+        streamBridge.send(DichotomyRunner.RESPONSE_BRIDGE_NAME, jsonApiConverter.toJsonMessage(csaResponse, CsaResponse.class));
+    }
+
+    void uploadResults(Index index, ParallelDichotomiesResult result) {
+        uploadResult(context.cracPtEs(), index, result.getPtEsResult().getRaoResult(), context.ptEsRaoResultDestinationPath(), "PT-ES");
+        uploadResult(context.cracFrEs(), index, result.getFrEsResult().getRaoResult(), context.frEsRaoResultDestinationPath(), "FR-ES");
+    }
+
+    private void uploadResult(Crac crac, Index index, RaoResult raoResult, String uploadPath, String border) {
+        RaoResult finalRaoResult = raoResult;
+        if (!crac.getVoltageCnecs().isEmpty()) {
+            finalRaoResult = resultHelper.updateRaoResultWithVoltageMonitoring(context.network(), crac, raoResult, context.raoParameters());
+        }
+        finalRaoResult = resultHelper.updateRaoResultWithCounterTradingRangeActions(crac, index, finalRaoResult, border);
+        fileExporter.saveRaoResultInArtifact(uploadPath, finalRaoResult, crac);
+    }
+
+    // Input network is validated as imported, on the working variant
+    ParallelDichotomiesResult validateInputNetwork() {
+        String variantId = context.network().getVariantManager().getWorkingVariantId();
+        CounterTradingValues counterTradingValues = new CounterTradingValues(0, 0);
+        String networkUrl = sweCsaRaoValidator.saveInputNetwork(context.csaRequest(), context.network(), counterTradingValues);
+        return validateStep(variantId, taskId(), counterTradingValues, networkUrl);
+    }
+
+    ParallelDichotomiesResult validateStep(String variantId, String runId, CounterTradingValues counterTradingValues) {
+        // both border RAOs read the same network artifact, steps without CT are not shifted and read the input network
+        context.network().getVariantManager().setWorkingVariant(variantId);
+        String networkUrl = counterTradingValues.ptEsCt() == 0 && counterTradingValues.frEsCt() == 0
+            ? sweCsaRaoValidator.saveInputNetwork(context.csaRequest(), context.network(), counterTradingValues)
+            : sweCsaRaoValidator.saveScaledNetwork(context.csaRequest(), context.network(), counterTradingValues);
+        return validateStep(variantId, runId, counterTradingValues, networkUrl);
+    }
+
+    private ParallelDichotomiesResult validateStep(String variantId, String runId, CounterTradingValues counterTradingValues, String networkUrl) {
+        return parallelDichotomiesRunner.run(taskId(), counterTradingValues,
+            () -> validateBorder(DichotomyDirection.PT_ES, variantId, runId, counterTradingValues, networkUrl),
+            () -> validateBorder(DichotomyDirection.FR_ES, variantId, runId, counterTradingValues, networkUrl));
+    }
+
+    DichotomyStepResult validateBorder(DichotomyDirection direction, String variantId, String runId, CounterTradingValues counterTradingValues, String networkUrl) {
+        CsaRequest csaRequest = context.csaRequest();
+        context.network().getVariantManager().setWorkingVariant(variantId);
+        if (direction == DichotomyDirection.PT_ES) {
+            return sweCsaRaoValidator.validateNetworkForPortugueseBorder(context.network(), context.cracPtEs(), csaRequest.getPtEsCracFileUri(), context.scalableZonalData(), context.raoParameters(), csaRequest, context.raoParametersUrl(), counterTradingValues, runId, networkUrl);
+        }
+        return sweCsaRaoValidator.validateNetworkForFrenchBorder(context.network(), context.cracFrEs(), csaRequest.getFrEsCracFileUri(), context.scalableZonalData(), context.raoParameters(), csaRequest, context.raoParametersUrl(), counterTradingValues, runId, networkUrl);
+    }
+
+    static <T> T joinFuture(String csaTaskId, CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable root = e.getCause() != null ? e.getCause() : e;
+            if (root instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CsaInternalException(csaTaskId, root.getMessage(), root);
+        }
+    }
+
+    void cloneInitialVariant(String newVariantName) {
+        context.network().getVariantManager().cloneVariant(context.initialVariant(), newVariantName);
+        context.network().getVariantManager().setWorkingVariant(newVariantName);
+    }
+
+    void resetToInitialVariant(String newVariantName) {
+        context.network().getVariantManager().setWorkingVariant(context.initialVariant());
+        context.network().getVariantManager().removeVariant(newVariantName);
+    }
+
+    // steps validated by another thread may have left their variant as working variant
+    void releaseStepVariant(String variantName) {
+        if (variantName != null) {
+            resetToInitialVariant(variantName);
+        }
+    }
+
+    static String getNewVariantName(CounterTradingValues counterTradingValues) {
+        return String.format("network-ScaledBy-%s", counterTradingValues.print());
+    }
+}
@@ -0,0 +1,61 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records dichotomy steps durations to predict if another step still fits before the deadline.
+ * An unbounded budget always leaves time for another step.
+ */
+public class DichotomyTimeBudget {
+    private final Clock clock;
+    private final Instant deadline;
+    private final double safetyFactor;
+    private final List<Duration> stepDurations = new ArrayList<>();
+
+    public DichotomyTimeBudget(Clock clock, Duration budget, double safetyFactor) {
+        this(clock, clock.instant(), budget, safetyFactor);
+    }
+
+    // budget counted from the given start, like the reception of the request
+    public DichotomyTimeBudget(Clock clock, Instant start, Duration budget, double safetyFactor) {
+        this.clock = clock;
+        this.deadline = budget == null ? null : start.plus(budget);
+        this.safetyFactor = safetyFactor;
+    }
+
+    public static DichotomyTimeBudget unbounded() {
+        return new DichotomyTimeBudget(Clock.systemUTC(), null, 1);
+    }
+
+    public boolean isBounded() {
+        return deadline != null;
+    }
+
+    public Instant startStep() {
+        return clock.instant();
+    }
+
+    public void endStep(Instant stepStart) {
+        stepDurations.add(Duration.between(stepStart, clock.instant()));
+    }
+
+    public Duration getRemainingTime() {
+        return isBounded() ? Duration.between(clock.instant(), deadline) : Duration.ofMillis(Long.MAX_VALUE);
+    }
+
+    public Duration getPredictedStepDuration() {
+        if (stepDurations.isEmpty()) {
+            return Duration.ZERO;
+        }
+        long averageMillis = stepDurations.stream().mapToLong(Duration::toMillis).sum() / stepDurations.size();
+        return Duration.ofMillis(Math.round(averageMillis * safetyFactor));
+    }
+
+    public boolean hasTimeForNextStep() {
+        return !isBounded() || getPredictedStepDuration().compareTo(getRemainingTime()) <= 0;
+    }
+}
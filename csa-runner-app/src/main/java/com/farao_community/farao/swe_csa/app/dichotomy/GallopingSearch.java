@@ -0,0 +1,38 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+// Secure bound found by doubling CT from an initial value instead of validating the maximum counter trading,
+// sequential steps then narrowing the bracket
+class GallopingSearch extends SequentialSearch {
+    private final double initialCounterTrading;
+
+    GallopingSearch(double initialCounterTrading) {
+        this.initialCounterTrading = initialCounterTrading;
+    }
+
+    // Doubles CT of unsecure borders from a small value until the step is secure or an unsecure border reaches its maximum,
+    // null if a shift fails or the search is stopped before
+    @Override
+    public ParallelDichotomiesResult findSecureBound(DichotomySteps steps, Index index, CounterTradingValues maxCounterTradingValues) {
+        double ctPtEs = Math.min(initialCounterTrading, maxCounterTradingValues.ptEsCt());
+        double ctFrEs = Math.min(initialCounterTrading, maxCounterTradingValues.frEsCt());
+        while (true) {
+            if (secureBoundSearchShouldStop(steps)) {
+                return null;
+            }
+            CounterTradingValues counterTradingValues = new CounterTradingValues(ctPtEs, ctFrEs);
+            steps.businessLogger().info("Galloping search testing CT PT-ES: '{}', and CT FR-ES: '{}'", ctPtEs, ctFrEs);
+            ParallelDichotomiesResult parallelDichotomiesResult = steps.shiftAndValidate(counterTradingValues, stepResult -> { });
+            if (DichotomySteps.isFailed(parallelDichotomiesResult)) {
+                steps.businessLogger().warn("Galloping search could not shift CT PT-ES: '{}', and CT FR-ES: '{}', falling back to maximum counter trading", ctPtEs, ctFrEs);
+                return null;
+            }
+            boolean ptEsCtSecure = index.addPtEsDichotomyStepResult(ctPtEs, parallelDichotomiesResult.getPtEsResult());
+            boolean frEsCtSecure = index.addFrEsDichotomyStepResult(ctFrEs, parallelDichotomiesResult.getFrEsResult());
+            if (ptEsCtSecure && frEsCtSecure || !ptEsCtSecure && ctPtEs >= maxCounterTradingValues.ptEsCt() || !frEsCtSecure && ctFrEs >= maxCounterTradingValues.frEsCt()) {
+                return parallelDichotomiesResult;
+            }
+            ctPtEs = ptEsCtSecure ? ctPtEs : Math.min(2 * ctPtEs, maxCounterTradingValues.ptEsCt());
+            ctFrEs = frEsCtSecure ? ctFrEs : Math.min(2 * ctFrEs, maxCounterTradingValues.frEsCt());
+        }
+    }
+}
@@ -2,12 +2,20 @@ package com.farao_community.farao.swe_csa.app.dichotomy;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
 public class Index {
+    private static final NextPointStrategy ESTIMATE_STRATEGY = new RegulaFalsiStrategy();
+
     private final double ptEsMinValue;
     private final double frEsMinValue;
-    private final double precision;
+    private double precision;
 
     private final double maxDichotomiesByBorder;
+    private final NextPointStrategy nextPointStrategy;
+    private double marginThreshold = 0;
     private Pair<Double, DichotomyStepResult> ptEsHighestUnsecureStep;
     private Pair<Double, DichotomyStepResult> ptEsLowestSecureStep;
     private Pair<Double, DichotomyStepResult> frEsHighestUnsecureStep;
@@ -17,10 +25,32 @@ public class Index {
     private int ptEsDichotomyCount = 0;
 
     public Index(double ptEsMinValue, double frEsMinValue, double precision, double maxDichotomiesByBorder) {
+        this(ptEsMinValue, frEsMinValue, precision, maxDichotomiesByBorder, new BisectionStrategy());
+    }
+
+    public Index(double ptEsMinValue, double frEsMinValue, double precision, double maxDichotomiesByBorder, NextPointStrategy nextPointStrategy) {
         this.ptEsMinValue = ptEsMinValue;
         this.frEsMinValue = frEsMinValue;
         this.precision = precision;
         this.maxDichotomiesByBorder = maxDichotomiesByBorder;
+        this.nextPointStrategy = nextPointStrategy;
+    }
+
+    public double getPrecision() {
+        return precision;
+    }
+
+    public void setPrecision(double precision) {
+        this.precision = precision;
+    }
+
+    public double getMaxDichotomiesByBorder() {
+        return maxDichotomiesByBorder;
+    }
+
+    // a border stops as soon as its lowest secure step worst margin is below this threshold, disabled when not positive
+    public void setMarginThreshold(double marginThreshold) {
+        this.marginThreshold = marginThreshold;
     }
 
     public Pair<Double, DichotomyStepResult> getFrEsHighestUnsecureStep() {
@@ -41,44 +71,181 @@ public class Index {
 
     public boolean addPtEsDichotomyStepResult(double ptEsCtStepValue, DichotomyStepResult stepResult) {
         ptEsDichotomyCount++;
+        return updatePtEsBounds(ptEsCtStepValue, stepResult);
+    }
+
+    public boolean addFrEsDichotomyStepResult(double frEsCtStepValue, DichotomyStepResult stepResult) {
+        frEsDichotomyCount++;
+        return updateFrEsBounds(frEsCtStepValue, stepResult);
+    }
+
+    // Results evaluated concurrently during one round count as a single dichotomy iteration
+    public void addPtEsDichotomyStepResults(List<Pair<Double, DichotomyStepResult>> stepResults) {
+        ptEsDichotomyCount++;
+        stepResults.forEach(stepResult -> updatePtEsBounds(stepResult.getLeft(), stepResult.getRight()));
+    }
+
+    public void addFrEsDichotomyStepResults(List<Pair<Double, DichotomyStepResult>> stepResults) {
+        frEsDichotomyCount++;
+        stepResults.forEach(stepResult -> updateFrEsBounds(stepResult.getLeft(), stepResult.getRight()));
+    }
+
+    private boolean updatePtEsBounds(double ptEsCtStepValue, DichotomyStepResult stepResult) {
         if (stepResult.isSecure()) {
-            ptEsLowestSecureStep = Pair.of(ptEsCtStepValue, stepResult);
+            if (ptEsLowestSecureStep == null || ptEsCtStepValue <= ptEsLowestSecureStep.getLeft()) {
+                ptEsLowestSecureStep = Pair.of(ptEsCtStepValue, stepResult);
+            }
             return true;
         } else {
-            ptEsHighestUnsecureStep = Pair.of(ptEsCtStepValue, stepResult);
+            if (ptEsHighestUnsecureStep == null || ptEsCtStepValue >= ptEsHighestUnsecureStep.getLeft()) {
+                ptEsHighestUnsecureStep = Pair.of(ptEsCtStepValue, stepResult);
+            }
             return false;
         }
     }
 
-    public boolean addFrEsDichotomyStepResult(double frEsCtStepValue, DichotomyStepResult stepResult) {
-        frEsDichotomyCount++;
+    private boolean updateFrEsBounds(double frEsCtStepValue, DichotomyStepResult stepResult) {
         if (stepResult.isSecure()) {
-            frEsLowestSecureStep = Pair.of(frEsCtStepValue, stepResult);
+            if (frEsLowestSecureStep == null || frEsCtStepValue <= frEsLowestSecureStep.getLeft()) {
+                frEsLowestSecureStep = Pair.of(frEsCtStepValue, stepResult);
+            }
             return true;
         } else {
-            frEsHighestUnsecureStep = Pair.of(frEsCtStepValue, stepResult);
+            if (frEsHighestUnsecureStep == null || frEsCtStepValue >= frEsHighestUnsecureStep.getLeft()) {
+                frEsHighestUnsecureStep = Pair.of(frEsCtStepValue, stepResult);
+            }
             return false;
         }
     }
 
     public boolean exitConditionIsNotMetForPtEs() {
-        return ptEsLowestSecureStep.getLeft() != ptEsMinValue && ptEsDichotomyCount < maxDichotomiesByBorder && ptEsLowestSecureStep.getLeft() - ptEsHighestUnsecureStep.getLeft() > precision;
+        return ptEsLowestSecureStep.getLeft() != ptEsMinValue && ptEsDichotomyCount < maxDichotomiesByBorder && ptEsLowestSecureStep.getLeft() - ptEsHighestUnsecureStep.getLeft() > precision
+            && !isWithinMarginThreshold(ptEsLowestSecureStep);
     }
 
     public boolean exitConditionIsNotMetForFrEs() {
-        return frEsLowestSecureStep.getLeft() != frEsMinValue && frEsDichotomyCount < maxDichotomiesByBorder && frEsLowestSecureStep.getLeft() - frEsHighestUnsecureStep.getLeft() > precision;
+        return frEsLowestSecureStep.getLeft() != frEsMinValue && frEsDichotomyCount < maxDichotomiesByBorder && frEsLowestSecureStep.getLeft() - frEsHighestUnsecureStep.getLeft() > precision
+            && !isWithinMarginThreshold(frEsLowestSecureStep);
+    }
+
+    private boolean isWithinMarginThreshold(Pair<Double, DichotomyStepResult> lowestSecureStep) {
+        double worstMargin = lowestSecureStep.getRight().getWorstMargin();
+        return marginThreshold > 0 && !Double.isNaN(worstMargin) && worstMargin >= 0 && worstMargin < marginThreshold;
     }
 
     public CounterTradingValues nextValues() {
         if (!exitConditionIsNotMetForFrEs() && exitConditionIsNotMetForPtEs()) {
-            return new CounterTradingValues((ptEsLowestSecureStep.getLeft() + ptEsHighestUnsecureStep.getLeft()) / 2, frEsLowestSecureStep.getLeft());
+            return new CounterTradingValues(nextPtEsValue(), frEsLowestSecureStep.getLeft());
         } else if (exitConditionIsNotMetForFrEs() && !exitConditionIsNotMetForPtEs()) {
-            return new CounterTradingValues(ptEsLowestSecureStep.getLeft(), (frEsLowestSecureStep.getLeft() + frEsHighestUnsecureStep.getLeft()) / 2);
+            return new CounterTradingValues(ptEsLowestSecureStep.getLeft(), nextFrEsValue());
         } else {
-            return new CounterTradingValues((ptEsLowestSecureStep.getLeft() + ptEsHighestUnsecureStep.getLeft()) / 2, (frEsLowestSecureStep.getLeft() + frEsHighestUnsecureStep.getLeft()) / 2);
+            return new CounterTradingValues(nextPtEsValue(), nextFrEsValue());
         }
     }
 
+    public double nextPtEsValue() {
+        return nextPointStrategy.nextValue(ptEsHighestUnsecureStep, ptEsLowestSecureStep);
+    }
+
+    public double nextFrEsValue() {
+        return nextPointStrategy.nextValue(frEsHighestUnsecureStep, frEsLowestSecureStep);
+    }
+
+    // Splits the bracket of each border in pointsByBorder + 1 equal parts, a border that met its exit condition keeps its lowest secure value
+    public List<CounterTradingValues> nextValues(int pointsByBorder) {
+        if (pointsByBorder <= 1) {
+            return List.of(nextValues());
+        }
+        boolean ptEsSearching = exitConditionIsNotMetForPtEs();
+        boolean frEsSearching = exitConditionIsNotMetForFrEs();
+        List<CounterTradingValues> values = new ArrayList<>();
+        for (int i = 1; i <= pointsByBorder; i++) {
+            double ptEsCt = ptEsSearching ? interiorPoint(ptEsHighestUnsecureStep.getLeft(), ptEsLowestSecureStep.getLeft(), i, pointsByBorder) : ptEsLowestSecureStep.getLeft();
+            double frEsCt = frEsSearching ? interiorPoint(frEsHighestUnsecureStep.getLeft(), frEsLowestSecureStep.getLeft(), i, pointsByBorder) : frEsLowestSecureStep.getLeft();
+            values.add(new CounterTradingValues(ptEsCt, frEsCt));
+        }
+        return values;
+    }
+
+    // CT values where the worst margin of each border is interpolated to reach zero, increased by headroom, empty if a border margin is unknown
+    public Optional<CounterTradingValues> estimatedValues(double headroom) {
+        double ptEsCt = exitConditionIsNotMetForPtEs() ? estimateValue(ptEsHighestUnsecureStep, ptEsLowestSecureStep, headroom) : ptEsLowestSecureStep.getLeft();
+        double frEsCt = exitConditionIsNotMetForFrEs() ? estimateValue(frEsHighestUnsecureStep, frEsLowestSecureStep, headroom) : frEsLowestSecureStep.getLeft();
+        if (Double.isNaN(ptEsCt) || Double.isNaN(frEsCt)) {
+            return Optional.empty();
+        }
+        return Optional.of(new CounterTradingValues(ptEsCt, frEsCt));
+    }
+
+    private static double estimateValue(Pair<Double, DichotomyStepResult> highestUnsecureStep, Pair<Double, DichotomyStepResult> lowestSecureStep, double headroom) {
+        if (!RegulaFalsiStrategy.marginsBracketZero(highestUnsecureStep, lowestSecureStep)) {
+            return Double.NaN;
+        }
+        // same interpolation as the regula falsi steps, bisecting when it lands too close to a bracket end
+        double estimatedValue = ESTIMATE_STRATEGY.nextValue(highestUnsecureStep, lowestSecureStep) + headroom;
+        return Math.min(Math.max(estimatedValue, highestUnsecureStep.getLeft()), lowestSecureStep.getLeft());
+    }
+
+    private static double interiorPoint(double unsecureValue, double secureValue, int pointIndex, int pointsByBorder) {
+        return unsecureValue + (secureValue - unsecureValue) * pointIndex / (pointsByBorder + 1);
+    }
+
+    // Next values can only be predicted before a step result is known when the next point strategy does not use the step margins
+    public boolean isSpeculationSupported() {
+        return !nextPointStrategy.usesStepMargins();
+    }
+
+    // Values the next round will evaluate once the given step result is known, for each of the secure and unsecure outcomes of both borders
+    public List<CounterTradingValues> speculativeNextValues(CounterTradingValues counterTradingValues) {
+        List<CounterTradingValues> values = new ArrayList<>();
+        if (!isSpeculationSupported()) {
+            return values;
+        }
+        for (boolean ptEsSecure : new boolean[]{true, false}) {
+            for (boolean frEsSecure : new boolean[]{true, false}) {
+                Index hypotheticalIndex = copy();
+                hypotheticalIndex.addHypotheticalStepResult(counterTradingValues, ptEsSecure, frEsSecure);
+                if (hypotheticalIndex.exitConditionIsNotMetForPtEs() || hypotheticalIndex.exitConditionIsNotMetForFrEs()) {
+                    CounterTradingValues nextValues = hypotheticalIndex.nextValues();
+                    if (!values.contains(nextValues)) {
+                        values.add(nextValues);
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    // Adds the step result as the dichotomy runner would, a step secure on both borders becoming the best one
+    private void addHypotheticalStepResult(CounterTradingValues counterTradingValues, boolean ptEsSecure, boolean frEsSecure) {
+        DichotomyStepResult ptEsStepResult = DichotomyStepResult.fromNetworkValidationResult(null, ptEsSecure, null, counterTradingValues);
+        DichotomyStepResult frEsStepResult = DichotomyStepResult.fromNetworkValidationResult(null, frEsSecure, null, counterTradingValues);
+        boolean ptEsCtSecure = addPtEsDichotomyStepResult(counterTradingValues.ptEsCt(), ptEsStepResult);
+        boolean frEsCtSecure = addFrEsDichotomyStepResult(counterTradingValues.frEsCt(), frEsStepResult);
+        if (ptEsCtSecure && frEsCtSecure) {
+            setBestValidDichotomyStepResult(new ParallelDichotomiesResult(ptEsStepResult, frEsStepResult, counterTradingValues));
+        }
+    }
+
+    // Copy used to predict next values, indexes keeping more state than the bounds must override it
+    protected Index copy() {
+        Index copy = new Index(ptEsMinValue, frEsMinValue, precision, maxDichotomiesByBorder, nextPointStrategy);
+        copyStateTo(copy);
+        return copy;
+    }
+
+    protected void copyStateTo(Index copy) {
+        copy.precision = precision;
+        copy.marginThreshold = marginThreshold;
+        copy.ptEsHighestUnsecureStep = ptEsHighestUnsecureStep;
+        copy.ptEsLowestSecureStep = ptEsLowestSecureStep;
+        copy.frEsHighestUnsecureStep = frEsHighestUnsecureStep;
+        copy.frEsLowestSecureStep = frEsLowestSecureStep;
+        copy.bestValidDichotomyStepResult = bestValidDichotomyStepResult;
+        copy.ptEsDichotomyCount = ptEsDichotomyCount;
+        copy.frEsDichotomyCount = frEsDichotomyCount;
+    }
+
     public void setBestValidDichotomyStepResult(ParallelDichotomiesResult bestValidDichotomyStepResult) {
         this.bestValidDichotomyStepResult = bestValidDichotomyStepResult;
     }
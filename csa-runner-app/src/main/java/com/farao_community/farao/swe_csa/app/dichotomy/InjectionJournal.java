@@ -0,0 +1,165 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.powsybl.glsk.commons.ZonalData;
+import com.powsybl.iidm.modification.scalable.Scalable;
+import com.powsybl.iidm.network.Bus;
+import com.powsybl.iidm.network.DefaultNetworkListener;
+import com.powsybl.iidm.network.Generator;
+import com.powsybl.iidm.network.Identifiable;
+import com.powsybl.iidm.network.Injection;
+import com.powsybl.iidm.network.Load;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.Terminal;
+import com.powsybl.iidm.network.VoltageLevel;
+import com.powsybl.iidm.network.extensions.SlackTerminal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Set points, active power limits and connection states of the scalable generators and loads of the working variant,
+// restored in place after a scaling instead of copying the whole variant again.
+// Only the injections updated since the last rollback are restored, together with the load flow state of the variant
+final class InjectionJournal implements AutoCloseable {
+    private final Network network;
+    private final String variantId;
+    private final Map<String, InjectionState> injectionStates;
+    // scaling can reconnect these injections, which is not notified to the network listeners
+    private final List<InjectionState> disconnectedInjectionStates;
+    private final List<BusState> busStates;
+    private final Map<VoltageLevel, Terminal> slackTerminals;
+    private final Set<String> updatedInjectionIds = ConcurrentHashMap.newKeySet();
+    private final UpdateListener updateListener = new UpdateListener();
+
+    private InjectionJournal(Network network, Map<String, InjectionState> injectionStates, List<BusState> busStates, Map<VoltageLevel, Terminal> slackTerminals) {
+        this.network = network;
+        this.variantId = network.getVariantManager().getWorkingVariantId();
+        this.injectionStates = injectionStates;
+        this.disconnectedInjectionStates = injectionStates.values().stream().filter(injectionState -> !injectionState.connected()).toList();
+        this.busStates = busStates;
+        this.slackTerminals = slackTerminals;
+        network.addListener(updateListener);
+    }
+
+    static InjectionJournal record(Network network, ZonalData<Scalable> zonalScalable) {
+        Map<String, InjectionState> injectionStates = new HashMap<>();
+        for (Scalable scalable : zonalScalable.getDataPerZone().values()) {
+            for (Injection<?> injection : scalable.filterInjections(network)) {
+                if (injection instanceof Generator generator) {
+                    injectionStates.putIfAbsent(generator.getId(), new InjectionState(generator, generator.getTargetP(), generator.getMinP(), generator.getMaxP(), generator.getTerminal().isConnected()));
+                } else if (injection instanceof Load load) {
+                    injectionStates.putIfAbsent(load.getId(), new InjectionState(load, load.getP0(), Double.NaN, Double.NaN, load.getTerminal().isConnected()));
+                }
+            }
+        }
+        List<BusState> busStates = new ArrayList<>();
+        network.getBusView().getBuses().forEach(bus -> busStates.add(new BusState(bus.getId(), bus.getV(), bus.getAngle())));
+        Map<VoltageLevel, Terminal> slackTerminals = new HashMap<>();
+        network.getVoltageLevels().forEach(voltageLevel -> slackTerminals.put(voltageLevel, getSlackTerminal(voltageLevel)));
+        return new InjectionJournal(network, injectionStates, busStates, slackTerminals);
+    }
+
+    int size() {
+        return injectionStates.size();
+    }
+
+    // restores the recorded values on the working variant, returns the number of injections that had changed
+    int rollback() {
+        int restoredInjections = 0;
+        for (String injectionId : List.copyOf(updatedInjectionIds)) {
+            if (injectionStates.get(injectionId).restore()) {
+                restoredInjections++;
+            }
+        }
+        for (InjectionState injectionState : disconnectedInjectionStates) {
+            if (!updatedInjectionIds.contains(injectionState.injection().getId()) && injectionState.restoreConnection()) {
+                restoredInjections++;
+            }
+        }
+        // updates notified by the restoration itself
+        updatedInjectionIds.clear();
+        restoreLoadFlowState();
+        return restoredInjections;
+    }
+
+    // next load flows are warm started from the recorded voltages and slack buses, as from a copy of the initial variant
+    private void restoreLoadFlowState() {
+        for (BusState busState : busStates) {
+            Bus bus = network.getBusView().getBus(busState.id());
+            if (bus != null) {
+                if (Double.compare(bus.getV(), busState.v()) != 0) {
+                    bus.setV(busState.v());
+                }
+                if (Double.compare(bus.getAngle(), busState.angle()) != 0) {
+                    bus.setAngle(busState.angle());
+                }
+            }
+        }
+        slackTerminals.forEach((voltageLevel, slackTerminal) -> {
+            if (getSlackTerminal(voltageLevel) != slackTerminal) {
+                SlackTerminal.reset(voltageLevel, slackTerminal);
+            }
+        });
+    }
+
+    private static Terminal getSlackTerminal(VoltageLevel voltageLevel) {
+        SlackTerminal slackTerminal = voltageLevel.getExtension(SlackTerminal.class);
+        return slackTerminal == null ? null : slackTerminal.getTerminal();
+    }
+
+    @Override
+    public void close() {
+        network.removeListener(updateListener);
+    }
+
+    private final class UpdateListener extends DefaultNetworkListener {
+        @Override
+        public void onUpdate(Identifiable<?> identifiable, String attribute, String updatedVariantId, Object oldValue, Object newValue) {
+            // active power limits are not variant dependent and are notified without variant
+            if ((updatedVariantId == null || updatedVariantId.equals(variantId)) && injectionStates.containsKey(identifiable.getId())) {
+                updatedInjectionIds.add(identifiable.getId());
+            }
+        }
+    }
+
+    private record BusState(String id, double v, double angle) {
+    }
+
+    private record InjectionState(Injection<?> injection, double activePower, double minP, double maxP, boolean connected) {
+        boolean restore() {
+            boolean changed = restoreConnection();
+            if (injection instanceof Generator generator) {
+                if (generator.getMinP() != minP || generator.getMaxP() != maxP) {
+                    // limits are widened first so that no intermediate state has minP above maxP
+                    generator.setMaxP(Math.max(generator.getMaxP(), maxP));
+                    generator.setMinP(minP);
+                    generator.setMaxP(maxP);
+                    changed = true;
+                }
+                if (generator.getTargetP() != activePower) {
+                    generator.setTargetP(activePower);
+                    changed = true;
+                }
+            } else if (injection instanceof Load load && load.getP0() != activePower) {
+                load.setP0(activePower);
+                changed = true;
+            }
+            return changed;
+        }
+
+        boolean restoreConnection() {
+            if (injection.getTerminal().isConnected() == connected) {
+                return false;
+            }
+            if (connected) {
+                injection.getTerminal().connect();
+            } else {
+                injection.getTerminal().disconnect();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Rounds of several CT values by border validated concurrently
+class MultiPointSearch implements DichotomySearch {
+    private final int pointsByBorder;
+
+    MultiPointSearch(int pointsByBorder) {
+        this.pointsByBorder = pointsByBorder;
+    }
+
+    @Override
+    public boolean search(DichotomySteps steps, Index index) {
+        DichotomyTimeBudget timeBudget = steps.context().timeBudget();
+        while (steps.dichotomyShouldContinue(index)) {
+            if (steps.isInterruptionAsked()) {
+                return true;
+            }
+            Instant roundStart = timeBudget.startStep();
+            List<CounterTradingValues> roundCounterTradingValues = index.nextValues(pointsByBorder);
+            steps.businessLogger().info("Next round evaluates concurrently CT values {}", roundCounterTradingValues.stream().map(CounterTradingValues::print).toList());
+            steps.shiftAndValidateConcurrently(roundCounterTradingValues, roundResults -> recordRoundResults(steps, index, roundResults));
+            timeBudget.endStep(roundStart);
+        }
+        return false;
+    }
+
+    // Round results count as a single dichotomy iteration, the secure step of the round with the lowest total CT becomes the best one if it improves it
+    private static void recordRoundResults(DichotomySteps steps, Index index, List<ParallelDichotomiesResult> roundResults) {
+        List<Pair<Double, DichotomyStepResult>> ptEsStepResults = new ArrayList<>();
+        List<Pair<Double, DichotomyStepResult>> frEsStepResults = new ArrayList<>();
+        ParallelDichotomiesResult bestSecureRoundResult = null;
+        for (ParallelDichotomiesResult parallelDichotomiesResult : roundResults) {
+            CounterTradingValues counterTradingValues = parallelDichotomiesResult.getCounterTradingValues();
+            ptEsStepResults.add(Pair.of(counterTradingValues.ptEsCt(), parallelDichotomiesResult.getPtEsResult()));
+            frEsStepResults.add(Pair.of(counterTradingValues.frEsCt(), parallelDichotomiesResult.getFrEsResult()));
+            if (parallelDichotomiesResult.getPtEsResult().isSecure() && parallelDichotomiesResult.getFrEsResult().isSecure()
+                && (bestSecureRoundResult == null || DichotomySteps.getTotalCounterTrading(parallelDichotomiesResult) < DichotomySteps.getTotalCounterTrading(bestSecureRoundResult))) {
+                bestSecureRoundResult = parallelDichotomiesResult;
+            }
+        }
+        index.addPtEsDichotomyStepResults(ptEsStepResults);
+        index.addFrEsDichotomyStepResults(frEsStepResults);
+
+        if (bestSecureRoundResult != null && (index.getBestValidDichotomyStepResult() == null || DichotomySteps.getTotalCounterTrading(bestSecureRoundResult) < DichotomySteps.getTotalCounterTrading(index.getBestValidDichotomyStepResult()))) {
+            index.setBestValidDichotomyStepResult(bestSecureRoundResult);
+            steps.context().network().getVariantManager().setWorkingVariant(DichotomySteps.getNewVariantName(bestSecureRoundResult.getCounterTradingValues()));
+            steps.sendStillRunningSecureResult(index, bestSecureRoundResult);
+        }
+    }
+}
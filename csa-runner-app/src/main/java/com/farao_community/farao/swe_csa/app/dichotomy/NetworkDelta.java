@@ -0,0 +1,113 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.farao_community.farao.swe_csa.api.exception.CsaInternalException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.powsybl.iidm.network.Generator;
+import com.powsybl.iidm.network.Injection;
+import com.powsybl.iidm.network.Load;
+import com.powsybl.iidm.network.Network;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set points, active power limits and connection states of the generators and loads of a variant that differ from a base variant,
+ * which is all a scaling changes, so that a scaled network can be rebuilt from the base network.
+ */
+public record NetworkDelta(List<GeneratorDelta> generators, List<LoadDelta> loads) {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public record GeneratorDelta(String id, double targetP, double minP, double maxP, boolean connected) {
+    }
+
+    public record LoadDelta(String id, double p0, boolean connected) {
+    }
+
+    // compares the working variant with the base variant, the working variant is unchanged when returning
+    public static NetworkDelta compute(Network network, String baseVariantId) {
+        String variantId = network.getVariantManager().getWorkingVariantId();
+        Map<String, GeneratorDelta> baseGenerators = new HashMap<>();
+        Map<String, LoadDelta> baseLoads = new HashMap<>();
+        network.getVariantManager().setWorkingVariant(baseVariantId);
+        try {
+            network.getGenerators().forEach(generator -> baseGenerators.put(generator.getId(), toGeneratorDelta(generator)));
+            network.getLoads().forEach(load -> baseLoads.put(load.getId(), toLoadDelta(load)));
+        } finally {
+            network.getVariantManager().setWorkingVariant(variantId);
+        }
+        List<GeneratorDelta> generators = new ArrayList<>();
+        for (Generator generator : network.getGenerators()) {
+            GeneratorDelta generatorDelta = toGeneratorDelta(generator);
+            if (!generatorDelta.equals(baseGenerators.get(generator.getId()))) {
+                generators.add(generatorDelta);
+            }
+        }
+        List<LoadDelta> loads = new ArrayList<>();
+        for (Load load : network.getLoads()) {
+            LoadDelta loadDelta = toLoadDelta(load);
+            if (!loadDelta.equals(baseLoads.get(load.getId()))) {
+                loads.add(loadDelta);
+            }
+        }
+        return new NetworkDelta(generators, loads);
+    }
+
+    public int size() {
+        return generators.size() + loads.size();
+    }
+
+    // sets the delta values on the working variant of a network holding the base variant values
+    public void apply(Network network) {
+        for (GeneratorDelta generatorDelta : generators) {
+            Generator generator = network.getGenerator(generatorDelta.id());
+            if (generator == null) {
+                throw new CsaInternalException(MDC.get("gridcapaTaskId"), String.format("Generator '%s' of network delta not found in network", generatorDelta.id()));
+            }
+            setConnected(generator, generatorDelta.connected());
+            // limits are widened first so that no intermediate state has minP above maxP
+            generator.setMaxP(Math.max(generator.getMaxP(), generatorDelta.maxP()));
+            generator.setMinP(generatorDelta.minP());
+            generator.setMaxP(generatorDelta.maxP());
+            generator.setTargetP(generatorDelta.targetP());
+        }
+        for (LoadDelta loadDelta : loads) {
+            Load load = network.getLoad(loadDelta.id());
+            if (load == null) {
+                throw new CsaInternalException(MDC.get("gridcapaTaskId"), String.format("Load '%s' of network delta not found in network", loadDelta.id()));
+            }
+            setConnected(load, loadDelta.connected());
+            load.setP0(loadDelta.p0());
+        }
+    }
+
+    public byte[] toJson() throws IOException {
+        return OBJECT_MAPPER.writeValueAsBytes(this);
+    }
+
+    public static NetworkDelta fromJson(byte[] content) throws IOException {
+        return OBJECT_MAPPER.readValue(content, NetworkDelta.class);
+    }
+
+    private static GeneratorDelta toGeneratorDelta(Generator generator) {
+        return new GeneratorDelta(generator.getId(), generator.getTargetP(), generator.getMinP(), generator.getMaxP(), generator.getTerminal().isConnected());
+    }
+
+    private static LoadDelta toLoadDelta(Load load) {
+        return new LoadDelta(load.getId(), load.getP0(), load.getTerminal().isConnected());
+    }
+
+    private static void setConnected(Injection<?> injection, boolean connected) {
+        if (injection.getTerminal().isConnected() == connected) {
+            return;
+        }
+        if (connected) {
+            injection.getTerminal().connect();
+        } else {
+            injection.getTerminal().disconnect();
+        }
+    }
+}
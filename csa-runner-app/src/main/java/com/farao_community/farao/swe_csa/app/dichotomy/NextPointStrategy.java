@@ -0,0 +1,23 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Locale;
+
+public interface NextPointStrategy {
+
+    double nextValue(Pair<Double, DichotomyStepResult> highestUnsecureStep, Pair<Double, DichotomyStepResult> lowestSecureStep);
+
+    // a strategy using the step margins cannot predict its next value before the RAO of the step returns
+    default boolean usesStepMargins() {
+        return false;
+    }
+
+    static NextPointStrategy fromName(String name) {
+        return switch (name.toUpperCase(Locale.ROOT)) {
+            case "BISECTION" -> new BisectionStrategy();
+            case "REGULA_FALSI" -> new RegulaFalsiStrategy();
+            default -> throw new IllegalArgumentException(String.format("Unknown dichotomy next point strategy '%s'", name));
+        };
+    }
+}
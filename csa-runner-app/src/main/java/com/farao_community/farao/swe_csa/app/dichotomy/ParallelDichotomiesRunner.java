@@ -4,11 +4,14 @@ import com.farao_community.farao.swe_csa.api.exception.CsaInternalException;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 @Service
@@ -60,7 +63,69 @@ public class ParallelDichotomiesRunner {
                 throw new CsaInternalException(csaTaskId, root.getMessage(), root);
             }
         } finally {
-            executor.shutdownNow();
+            shutdownAndAwaitTermination(csaTaskId, executor);
         }
     }
+
+    public List<ParallelDichotomiesResult> runAll(String csaTaskId, List<Supplier<ParallelDichotomiesResult>> stepSuppliers) {
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, stepSuppliers.size()));
+        try {
+            List<CompletableFuture<ParallelDichotomiesResult>> futures = stepSuppliers.stream()
+                .map(stepSupplier -> submit(contextMap, stepSupplier, executor))
+                .toList();
+
+            // If one step fails, cancel the others
+            futures.forEach(future -> future.whenComplete((r, ex) -> {
+                if (ex != null) {
+                    futures.forEach(other -> other.cancel(true));
+                }
+            }));
+            try {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+                return futures.stream().map(CompletableFuture::join).toList();
+            } catch (CompletionException e) {
+                Throwable root = e.getCause() != null ? e.getCause() : e;
+                throw new CsaInternalException(csaTaskId, root.getMessage(), root);
+            }
+        } finally {
+            shutdownAndAwaitTermination(csaTaskId, executor);
+        }
+    }
+
+    // A cancelled future completes while its task may still be running and reading its network variant,
+    // variants can only be removed once the executor terminated. Cancelled tasks that did not start are skipped.
+    public static void shutdownAndAwaitTermination(String csaTaskId, ExecutorService executor) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CsaInternalException(csaTaskId, "Interrupted while waiting for running dichotomy steps", e);
+        }
+    }
+
+    public CompletableFuture<ParallelDichotomiesResult> submit(Supplier<ParallelDichotomiesResult> stepSupplier, Executor executor) {
+        return submit(MDC.getCopyOfContextMap(), stepSupplier, executor);
+    }
+
+    public CompletableFuture<DichotomyStepResult> submitBorder(DichotomyDirection direction, Supplier<DichotomyStepResult> borderSupplier, Executor executor) {
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        return CompletableFuture.supplyAsync(() -> {
+            MDC.setContextMap(contextMap);
+            MDC.put("eventPrefix", direction.toString());
+            try {
+                return borderSupplier.get();
+            } finally {
+                MDC.remove("eventPrefix");
+            }
+        }, executor);
+    }
+
+    private static CompletableFuture<ParallelDichotomiesResult> submit(Map<String, String> contextMap, Supplier<ParallelDichotomiesResult> stepSupplier, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            MDC.setContextMap(contextMap);
+            return stepSupplier.get();
+        }, executor);
+    }
 }
@@ -0,0 +1,41 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Interpolates the CT value cancelling the worst border margin between the two bracketing steps,
+ * falls back to bisection when margins are missing or interpolated value is too close to a bound.
+ */
+public class RegulaFalsiStrategy implements NextPointStrategy {
+
+    private static final double MIN_BRACKET_RATIO = 0.1;
+    private static final double MAX_BRACKET_RATIO = 0.9;
+
+    private final BisectionStrategy bisectionStrategy = new BisectionStrategy();
+
+    @Override
+    public boolean usesStepMargins() {
+        return true;
+    }
+
+    @Override
+    public double nextValue(Pair<Double, DichotomyStepResult> highestUnsecureStep, Pair<Double, DichotomyStepResult> lowestSecureStep) {
+        if (!marginsBracketZero(highestUnsecureStep, lowestSecureStep)) {
+            return bisectionStrategy.nextValue(highestUnsecureStep, lowestSecureStep);
+        }
+        double unsecureMargin = highestUnsecureStep.getRight().getWorstMargin();
+        double secureMargin = lowestSecureStep.getRight().getWorstMargin();
+        double bracketRatio = -unsecureMargin / (secureMargin - unsecureMargin);
+        if (bracketRatio < MIN_BRACKET_RATIO || bracketRatio > MAX_BRACKET_RATIO) {
+            return bisectionStrategy.nextValue(highestUnsecureStep, lowestSecureStep);
+        }
+        return highestUnsecureStep.getLeft() + (lowestSecureStep.getLeft() - highestUnsecureStep.getLeft()) * bracketRatio;
+    }
+
+    // worst margins of both steps are known and of opposite signs, the interpolation is then defined
+    static boolean marginsBracketZero(Pair<Double, DichotomyStepResult> highestUnsecureStep, Pair<Double, DichotomyStepResult> lowestSecureStep) {
+        double unsecureMargin = highestUnsecureStep.getRight().getWorstMargin();
+        double secureMargin = lowestSecureStep.getRight().getWorstMargin();
+        return !Double.isNaN(unsecureMargin) && !Double.isNaN(secureMargin) && unsecureMargin < 0 && secureMargin >= 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+/**
+ * Sensitivity of the ES-FR and ES-PT exchange mismatches to the FR and PT scaling values, ES scaling balancing both.
+ * It starts from the identity, the raw mismatch correction, and is refined with a Broyden update after each shift iteration.
+ */
+final class ScalingJacobian {
+    private static final double MIN_DETERMINANT = 1e-6;
+    private static final double MIN_SCALING_VARIATION = 1e-9;
+
+    // rows: ES-FR and ES-PT mismatches, columns: FR and PT scaling values
+    private final double[][] values = {{1, 0}, {0, 1}};
+
+    void update(double[] scalingVariation, double[] mismatchVariation) {
+        double squaredNorm = scalingVariation[0] * scalingVariation[0] + scalingVariation[1] * scalingVariation[1];
+        if (squaredNorm < MIN_SCALING_VARIATION) {
+            return;
+        }
+        for (int i = 0; i < 2; i++) {
+            double residual = mismatchVariation[i] - values[i][0] * scalingVariation[0] - values[i][1] * scalingVariation[1];
+            values[i][0] += residual * scalingVariation[0] / squaredNorm;
+            values[i][1] += residual * scalingVariation[1] / squaredNorm;
+        }
+    }
+
+    // FR and PT scaling variations cancelling the given mismatches, null when the jacobian cannot be inverted
+    double[] scalingVariation(double[] mismatch) {
+        double determinant = values[0][0] * values[1][1] - values[0][1] * values[1][0];
+        if (Math.abs(determinant) < MIN_DETERMINANT) {
+            return null;
+        }
+        return new double[]{
+            -(values[1][1] * mismatch[0] - values[0][1] * mismatch[1]) / determinant,
+            -(values[0][0] * mismatch[1] - values[1][0] * mismatch[0]) / determinant
+        };
+    }
+
+    double get(int row, int column) {
+        return values[row][column];
+    }
+}
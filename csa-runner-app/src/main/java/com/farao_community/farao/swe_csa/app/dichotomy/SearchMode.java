@@ -0,0 +1,20 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+// Way the dichotomy searches the lowest secure counter trading between the input network and the maximum counter trading,
+// a single mode runs for a request
+public enum SearchMode {
+    // one step at a time, each border bisecting its own bracket
+    SEQUENTIAL,
+    // one step at a time, PT-ES and FR-ES CT pairs bounded by the results of every evaluated pair
+    COUPLED,
+    // rounds of several CT values by border validated concurrently
+    MULTI_POINT,
+    // next steps of every outcome of the running step launched before its result is known, mispredicted ones being stopped
+    SPECULATIVE,
+    // each border goes on with its own dichotomy as soon as its RAO returns, found CT values are then validated together
+    DECOUPLED,
+    // secure bound found by doubling CT from an initial value instead of validating the maximum counter trading
+    GALLOPING,
+    // secure bound found around CT of the same or previous hour instead of validating the maximum counter trading
+    WARM_START
+}
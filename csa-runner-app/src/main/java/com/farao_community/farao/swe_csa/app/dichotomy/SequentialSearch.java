@@ -0,0 +1,45 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+// One step at a time, each border bisecting its own bracket
+class SequentialSearch implements DichotomySearch {
+    private boolean interrupted = false;
+
+    @Override
+    public boolean search(DichotomySteps steps, Index index) {
+        while (steps.dichotomyShouldContinue(index)) {
+            if (steps.isInterruptionAsked()) {
+                return true;
+            }
+            CounterTradingValues counterTradingValues = index.nextValues();
+            steps.businessLogger().info("Next CT values are '{}' for PT-ES and '{}' for FR-ES", counterTradingValues.ptEsCt(), counterTradingValues.frEsCt());
+            steps.shiftAndValidate(counterTradingValues, stepResult -> steps.recordStepResult(index, stepResult));
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isInterrupted() {
+        return interrupted;
+    }
+
+    // Checked before each step of a secure bound search, like the dichotomy loop: once the time budget is spent,
+    // the search stops and falls back to the maximum counter trading
+    boolean secureBoundSearchShouldStop(DichotomySteps steps) {
+        if (steps.isInterruptionAsked()) {
+            interrupted = true;
+            return true;
+        }
+        DichotomyTimeBudget timeBudget = steps.context().timeBudget();
+        if (!timeBudget.hasTimeForNextStep()) {
+            steps.businessLogger().warn("Next step predicted to last {} s does not fit in the {} s of time budget left, stopping secure bound search", timeBudget.getPredictedStepDuration().toSeconds(), timeBudget.getRemainingTime().toSeconds());
+            return true;
+        }
+        return false;
+    }
+
+    // Validates both borders at the given CT values, which become the best secure ones when both borders are secure
+    static boolean verifyCounterTradingValues(DichotomySteps steps, Index index, CounterTradingValues counterTradingValues) {
+        ParallelDichotomiesResult parallelDichotomiesResult = steps.shiftAndValidate(counterTradingValues, stepResult -> steps.recordStepResult(index, stepResult));
+        return parallelDichotomiesResult.getPtEsResult().isSecure() && parallelDichotomiesResult.getFrEsResult().isSecure();
+    }
+}
@@ -0,0 +1,142 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.farao_community.farao.dichotomy.api.exceptions.GlskLimitationException;
+import com.farao_community.farao.dichotomy.api.exceptions.ShiftingException;
+import com.powsybl.iidm.network.Network;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Next steps of every outcome of the running step launched before its result is known, mispredicted ones being stopped.
+// Steps run by rounds: the variants of a round are all created before its first step is launched and removed once none of them runs anymore,
+// the network variants are then never cloned nor removed while a RAO reads one
+class SpeculativeSearch implements DichotomySearch {
+    private final int poolSize;
+
+    SpeculativeSearch(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    @Override
+    public boolean search(DichotomySteps steps, Index index) {
+        DichotomyTimeBudget timeBudget = steps.context().timeBudget();
+        return steps.withThreadLocalVariants(() -> {
+            int launchedSteps = 0;
+            while (steps.dichotomyShouldContinue(index)) {
+                if (steps.isInterruptionAsked()) {
+                    return true;
+                }
+                Instant roundStart = timeBudget.startStep();
+                List<CounterTradingValues> roundCounterTradingValues = new ArrayList<>();
+                roundCounterTradingValues.add(index.nextValues());
+                roundCounterTradingValues.addAll(index.speculativeNextValues(roundCounterTradingValues.get(0)));
+                processRound(steps, index, roundCounterTradingValues, launchedSteps);
+                launchedSteps += roundCounterTradingValues.size();
+                timeBudget.endStep(roundStart);
+            }
+            return false;
+        });
+    }
+
+    // First CT values of the round are the current step, the other ones its speculative next steps
+    private void processRound(DichotomySteps steps, Index index, List<CounterTradingValues> roundCounterTradingValues, int firstStepNumber) {
+        List<SpeculativeStep> shiftedSteps = new ArrayList<>();
+        try {
+            for (CounterTradingValues counterTradingValues : roundCounterTradingValues) {
+                shiftedSteps.add(shiftSpeculativeStep(steps, counterTradingValues, firstStepNumber + shiftedSteps.size()));
+            }
+            SpeculativeStep secureStep = validateRound(steps, index, shiftedSteps);
+            if (secureStep != null) {
+                // uploaded once no step of the round reads the network anymore, from the variant of the step
+                Network network = steps.context().network();
+                if (secureStep.variantName() != null) {
+                    network.getVariantManager().setWorkingVariant(secureStep.variantName());
+                }
+                steps.sendStillRunningSecureResult(index, index.getBestValidDichotomyStepResult());
+                network.getVariantManager().setWorkingVariant(steps.context().initialVariant());
+            }
+        } finally {
+            shiftedSteps.forEach(step -> steps.releaseStepVariant(step.variantName()));
+        }
+    }
+
+    // Records the current step and the predicted next one if it was launched, returns the last one that became the best secure step
+    private SpeculativeStep validateRound(DichotomySteps steps, Index index, List<SpeculativeStep> shiftedSteps) {
+        List<SpeculativeStep> launchedSteps = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            // current step is submitted first and gets the first free thread
+            shiftedSteps.forEach(step -> launchedSteps.add(launchSpeculativeStep(steps, step, executor)));
+
+            SpeculativeStep currentStep = launchedSteps.get(0);
+            SpeculativeStep secureStep = addSpeculativeStepResult(steps, index, currentStep) ? currentStep : null;
+            CounterTradingValues nextCounterTradingValues = index.exitConditionIsNotMetForPtEs() || index.exitConditionIsNotMetForFrEs() ? index.nextValues() : null;
+            SpeculativeStep nextStep = null;
+            for (SpeculativeStep childStep : launchedSteps.subList(1, launchedSteps.size())) {
+                if (nextStep == null && childStep.counterTradingValues().equals(nextCounterTradingValues)) {
+                    nextStep = childStep;
+                } else {
+                    stopSpeculativeStep(steps, childStep);
+                }
+            }
+            // predicted step ran with the current one, its result is recorded as the next dichotomy step
+            if (nextStep != null && addSpeculativeStepResult(steps, index, nextStep)) {
+                secureStep = nextStep;
+            }
+            return secureStep;
+        } finally {
+            launchedSteps.forEach(step -> stopSpeculativeStep(steps, step));
+            // variants can only be removed once the steps of the round stopped using them
+            ParallelDichotomiesRunner.shutdownAndAwaitTermination(steps.taskId(), executor);
+        }
+    }
+
+    private static SpeculativeStep shiftSpeculativeStep(DichotomySteps steps, CounterTradingValues counterTradingValues, int stepNumber) {
+        // steps of a round may shift the same CT values, step number keeps names unique
+        String newVariantName = DichotomySteps.getNewVariantName(counterTradingValues) + "-" + stepNumber;
+        String runId = steps.taskId() + "-" + stepNumber;
+        try {
+            steps.shiftStep(counterTradingValues, newVariantName);
+        } catch (GlskLimitationException | ShiftingException e) {
+            return new SpeculativeStep(counterTradingValues, null, runId, CompletableFuture.completedFuture(steps.failedStep(counterTradingValues, e)));
+        } finally {
+            steps.context().network().getVariantManager().setWorkingVariant(steps.context().initialVariant());
+        }
+        return new SpeculativeStep(counterTradingValues, newVariantName, runId, null);
+    }
+
+    private static SpeculativeStep launchSpeculativeStep(DichotomySteps steps, SpeculativeStep shiftedStep, ExecutorService executor) {
+        if (shiftedStep.future() != null) {
+            return shiftedStep;
+        }
+        steps.interruptionService().registerRaoRun(steps.taskId(), shiftedStep.runId());
+        CompletableFuture<ParallelDichotomiesResult> future = steps.parallelDichotomiesRunner().submit(() -> {
+            try {
+                return steps.validateStep(shiftedStep.variantName(), shiftedStep.runId(), shiftedStep.counterTradingValues());
+            } finally {
+                steps.interruptionService().unregisterRaoRun(steps.taskId(), shiftedStep.runId());
+            }
+        }, executor);
+        return new SpeculativeStep(shiftedStep.counterTradingValues(), shiftedStep.variantName(), shiftedStep.runId(), future);
+    }
+
+    private static boolean addSpeculativeStepResult(DichotomySteps steps, Index index, SpeculativeStep step) {
+        return DichotomySteps.addStepResult(index, DichotomySteps.joinFuture(steps.taskId(), step.future()));
+    }
+
+    private static void stopSpeculativeStep(DichotomySteps steps, SpeculativeStep step) {
+        if (!step.future().isDone()) {
+            steps.businessLogger().info("Cancelling speculative CT values '{}' for PT-ES and '{}' for FR-ES", step.counterTradingValues().ptEsCt(), step.counterTradingValues().frEsCt());
+            // a step that did not start yet is skipped, a running one is stopped by the RAO runner
+            step.future().cancel(false);
+            steps.interruptionService().stopRaoRun(steps.taskId(), step.runId());
+        }
+    }
+
+    private record SpeculativeStep(CounterTradingValues counterTradingValues, String variantName, String runId, CompletableFuture<ParallelDichotomiesResult> future) {
+    }
+}
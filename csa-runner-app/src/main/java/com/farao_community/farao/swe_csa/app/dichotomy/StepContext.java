@@ -0,0 +1,13 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.farao_community.farao.swe_csa.api.resource.CsaRequest;
+import com.powsybl.glsk.commons.ZonalData;
+import com.powsybl.iidm.modification.scalable.Scalable;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.openrao.data.crac.api.Crac;
+import com.powsybl.openrao.raoapi.parameters.RaoParameters;
+
+// Request inputs and shifting state shared by all the steps of a dichotomy, whatever the search mode
+record StepContext(CsaRequest csaRequest, String ptEsRaoResultDestinationPath, String frEsRaoResultDestinationPath, RaoParameters raoParameters, String raoParametersUrl,
+                   Network network, Crac cracPtEs, Crac cracFrEs, ZonalData<Scalable> scalableZonalData, String initialVariant, SweCsaNetworkShifter networkShifter, DichotomyTimeBudget timeBudget) {
+}
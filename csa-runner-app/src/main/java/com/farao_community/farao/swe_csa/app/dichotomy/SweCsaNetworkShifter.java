@@ -12,6 +12,8 @@ import com.farao_community.farao.dichotomy.api.exceptions.ShiftingException;
 import com.farao_community.farao.gridcapa_swe_commons.shift.CountryBalanceComputation;
 import com.farao_community.farao.gridcapa_swe_commons.shift.GeneratorLimitsHandler;
 import com.farao_community.farao.gridcapa_swe_commons.shift.ScalableGeneratorConnector;
+import com.farao_community.farao.swe_csa.app.shift.CompiledScalingPlan;
+import com.farao_community.farao.swe_csa.app.shift.GlskHeadroomIndex;
 import com.farao_community.farao.swe_csa.app.shift.ShiftDispatcher;
 import com.powsybl.computation.local.LocalComputationManager;
 import com.powsybl.glsk.commons.ZonalData;
@@ -20,6 +22,7 @@ import com.powsybl.iidm.modification.scalable.ScalingParameters;
 import com.powsybl.iidm.network.Country;
 import com.powsybl.iidm.network.Network;
 import com.powsybl.loadflow.LoadFlow;
+import com.powsybl.loadflow.LoadFlowParameters;
 import com.powsybl.loadflow.LoadFlowResult;
 import com.powsybl.openrao.commons.EICode;
 import com.powsybl.openrao.raoapi.parameters.RaoParameters;
@@ -37,6 +40,7 @@ import static com.powsybl.openrao.commons.logs.OpenRaoLoggerProvider.BUSINESS_WA
 public final class SweCsaNetworkShifter {
     private static final double DEFAULT_SHIFT_TOLERANCE = 1; // in MW
     private static final int DEFAULT_MAX_SHIFT_ITERATIONS = 10;
+    private static final String REUSED_PROCESSED_VARIANT_ID = "SHIFT PROCESSED COPY";
     public static final String EI_CODE_FR = new EICode(Country.FR).getAreaCode();
     public static final String EI_CODE_PT = new EICode(Country.PT).getAreaCode();
     public static final String EI_CODE_ES = new EICode(Country.ES).getAreaCode();
@@ -47,25 +51,51 @@ public final class SweCsaNetworkShifter {
     private final double esPtInitialExchange;
 
     private final ShiftDispatcher shiftDispatcher;
+    private final WarmStartLoadFlow warmStartLoadFlow;
+    private boolean jacobianCorrection = false;
+    private boolean dcPreShift = false;
+    private boolean reuseProcessedVariant = false;
+    private boolean injectionJournal = false;
+    private GlskHeadroomIndex glskHeadroomIndex;
+    private Map<String, CompiledScalingPlan> compiledScalingPlans = Map.of();
+    private ShiftStatistics lastShiftStatistics;
 
     public SweCsaNetworkShifter(ZonalData<Scalable> zonalScalable, double esFrInitialExchange, double esPtInitialExchange, ShiftDispatcher shiftDispatcher) {
-        this(zonalScalable, esFrInitialExchange, esPtInitialExchange, shiftDispatcher, DEFAULT_SHIFT_TOLERANCE, DEFAULT_MAX_SHIFT_ITERATIONS);
+        this(zonalScalable, esFrInitialExchange, esPtInitialExchange, shiftDispatcher, null);
     }
 
-    private SweCsaNetworkShifter(ZonalData<Scalable> zonalScalable, double esFrInitialExchange, double esPtInitialExchange, ShiftDispatcher shiftDispatcher, double shiftEpsilon, int maxShiftIterations) {
+    // load flows of the shift iterations are run in the given session when not null, with the session load flow parameters
+    public SweCsaNetworkShifter(ZonalData<Scalable> zonalScalable, double esFrInitialExchange, double esPtInitialExchange, ShiftDispatcher shiftDispatcher, WarmStartLoadFlow warmStartLoadFlow) {
+        this(zonalScalable, esFrInitialExchange, esPtInitialExchange, shiftDispatcher, warmStartLoadFlow, DEFAULT_SHIFT_TOLERANCE, DEFAULT_MAX_SHIFT_ITERATIONS);
+    }
+
+    private SweCsaNetworkShifter(ZonalData<Scalable> zonalScalable, double esFrInitialExchange, double esPtInitialExchange, ShiftDispatcher shiftDispatcher, WarmStartLoadFlow warmStartLoadFlow, double shiftEpsilon, int maxShiftIterations) {
         this.zonalScalable = zonalScalable;
         this.shiftDispatcher = shiftDispatcher;
+        this.warmStartLoadFlow = warmStartLoadFlow;
         this.shiftTolerance = shiftEpsilon;
         this.maxShiftIterations = maxShiftIterations;
         this.esFrInitialExchange = esFrInitialExchange;
         this.esPtInitialExchange = esPtInitialExchange;
     }
 
+    // Shifter with the same settings for a copy of the shifted network, compiled scaling plans bound to the generators of this network are left out
+    public SweCsaNetworkShifter forNetworkCopy() {
+        SweCsaNetworkShifter networkShifter = new SweCsaNetworkShifter(zonalScalable, esFrInitialExchange, esPtInitialExchange, shiftDispatcher, warmStartLoadFlow, shiftTolerance, maxShiftIterations);
+        networkShifter.setJacobianCorrection(jacobianCorrection);
+        networkShifter.setDcPreShift(dcPreShift);
+        networkShifter.setReuseProcessedVariant(reuseProcessedVariant);
+        networkShifter.setInjectionJournal(injectionJournal);
+        networkShifter.setGlskHeadroomIndex(glskHeadroomIndex);
+        return networkShifter;
+    }
+
     public void applyCounterTrading(CounterTradingValues counterTradingValues, Network network, RaoParameters raoParameters) throws GlskLimitationException, ShiftingException {
         BUSINESS_LOGS.info("Starting shift on network {}", network.getVariantManager().getWorkingVariantId());
 
         // Compute the initial estimation of country net position scaling values, given the counter-trading values
         Map<String, Double> scalingValueEstimationPerCountry = shiftDispatcher.dispatch(counterTradingValues);
+        checkGlskHeadroom(scalingValueEstimationPerCountry);
 
         // Compute target exchange values, given the counter-trading values
         Map<String, Double> targetExchanges = Map.of(
@@ -74,62 +104,141 @@ public final class SweCsaNetworkShifter {
         );
         BUSINESS_LOGS.info("Target exchanges: PT->ES: {}, FR-ES: {}", -targetExchanges.get(DichotomyDirection.ES_PT.toString()), -targetExchanges.get(DichotomyDirection.ES_FR.toString()));
 
-        shiftExchangeValues(network, targetExchanges, scalingValueEstimationPerCountry, raoParameters);
+        Map<String, Double> convergedScalingPerCountry = shiftExchangeValues(network, targetExchanges, scalingValueEstimationPerCountry, raoParameters);
+        shiftDispatcher.recordConvergedScaling(counterTradingValues, convergedScalingPerCountry);
     }
 
-    void shiftExchangeValues(Network network, Map<String, Double> targetExchanges, Map<String, Double> scalingValueEstimationPerCountry, RaoParameters raoParameters) throws ShiftingException, GlskLimitationException {
+    // returns the scaling values per country that reached the target exchanges
+    Map<String, Double> shiftExchangeValues(Network network, Map<String, Double> targetExchanges, Map<String, Double> scalingValueEstimationPerCountry, RaoParameters raoParameters) throws ShiftingException, GlskLimitationException {
         ScalableGeneratorConnector scalableGeneratorConnector = new ScalableGeneratorConnector(zonalScalable);
         GeneratorLimitsHandler generatorLimitsHandler = new GeneratorLimitsHandler(zonalScalable);
         Map<String, Double> scalingValuePerCountry = new HashMap<>(scalingValueEstimationPerCountry);
+        InjectionJournal journal = null;
         try {
-            int iterationCounter = 0;
-            boolean shiftSucceed = false;
-            Map<String, Double> mismatchPerBorder;
+            ScalingJacobian scalingJacobian = new ScalingJacobian();
 
             String initialVariantId = network.getVariantManager().getWorkingVariantId();
-            String processedVariantId = initialVariantId + " PROCESSED COPY";
             String workingVariantCopyId = initialVariantId + " WORKING COPY";
-            preProcessNetwork(network, scalableGeneratorConnector, generatorLimitsHandler, initialVariantId, processedVariantId, workingVariantCopyId);
-            do {
-                // Step 1: Perform the scaling given the current estimation
-                shiftNetPositions(network, scalingValuePerCountry);
-
-                // Step 2: Compute exchanges mismatch
-                mismatchPerBorder = computeExchangeValuesMismatch(network, workingVariantCopyId, targetExchanges, raoParameters);
-
-                // Step 3: Checks balance adjustment results
-                if (mismatchPerBorder.values().stream().allMatch(mismatch -> Math.abs(mismatch) < shiftTolerance)) {
-                    BUSINESS_LOGS.info("Tolerance of {} reached, shift succeeded after {} iteration(s)", shiftTolerance, ++iterationCounter);
-                    network.getVariantManager().cloneVariant(workingVariantCopyId, initialVariantId, true);
-                    shiftSucceed = true;
-                } else {
-                    // Reset current variant with initial state for each iteration (keeping pre-processing)
-                    network.getVariantManager().cloneVariant(processedVariantId, workingVariantCopyId, true);
-                    updateScalingValuesWithMismatch(scalingValuePerCountry, mismatchPerBorder);
-                    ++iterationCounter;
+            // Shift in place keeps the pre-processing on the initial variant, each iteration then rolls back the scaled injections instead of copying variants
+            journal = injectionJournal ? preProcessNetworkInPlace(network, scalableGeneratorConnector, generatorLimitsHandler) : null;
+            String processedVariantId = injectionJournal ? null : preProcessNetwork(network, scalableGeneratorConnector, generatorLimitsHandler, initialVariantId, workingVariantCopyId);
+            String shiftVariantId = injectionJournal ? initialVariantId : workingVariantCopyId;
+            ShiftReset shiftReset = injectionJournal ? journal::rollback : () -> network.getVariantManager().cloneVariant(processedVariantId, workingVariantCopyId, true);
+
+            int dcIterations = 0;
+            long dcStart = System.nanoTime();
+            if (dcPreShift) {
+                // Scaling values are first converged with cheap DC load flows, AC iterations then only correct losses and voltage effects
+                LoadFlowParameters dcLoadFlowParameters = LoadFlowAndSensitivityParameters.getSensitivityWithLoadFlowParameters(raoParameters).getLoadFlowParameters().copy().setDc(true);
+                try {
+                    ShiftIterations dcShiftIterations = runShiftIterations(network, scalingValuePerCountry, scalingJacobian, shiftReset,
+                        () -> computeExchangeValuesMismatch(network, targetExchanges, LoadFlow.run(network, shiftVariantId, LocalComputationManager.getDefault(), dcLoadFlowParameters)));
+                    dcIterations = dcShiftIterations.iterations();
+                } catch (ShiftingException | GlskLimitationException e) {
+                    // GLSK limits are checked again by the AC iterations, which start over from the estimation as without DC pre-shift
+                    BUSINESS_WARNS.warn("DC pre-shift failed, balancing with AC load flows only: {}", e.getMessage());
+                    scalingValuePerCountry = new HashMap<>(scalingValueEstimationPerCountry);
+                    scalingJacobian = new ScalingJacobian();
                 }
-            } while (iterationCounter < maxShiftIterations && !shiftSucceed);
+                // AC iterations start from the initial state with the DC scaling values
+                shiftReset.reset();
+            }
+            long acStart = System.nanoTime();
+            ShiftIterations acShiftIterations = runShiftIterations(network, scalingValuePerCountry, scalingJacobian, shiftReset,
+                () -> computeExchangeValuesMismatch(network, shiftVariantId, targetExchanges, raoParameters, warmStartLoadFlow));
+            lastShiftStatistics = new ShiftStatistics(dcIterations, (acStart - dcStart) / 1_000_000, acShiftIterations.iterations(), (System.nanoTime() - acStart) / 1_000_000);
 
             // Step 4 : check after iteration max and out of tolerance
-            if (!shiftSucceed) {
+            Map<String, Double> mismatchPerBorder = acShiftIterations.mismatchPerBorder();
+            if (!acShiftIterations.succeeded()) {
                 String message = String.format("Balancing adjustment out of tolerances: mismatch on ES-PT = %.2f , mismatch on ES-FR =  %.2f", mismatchPerBorder.get(DichotomyDirection.ES_PT.toString()), mismatchPerBorder.get(DichotomyDirection.ES_FR.toString()));
                 BUSINESS_LOGS.error(message);
                 throw new ShiftingException(message);
             }
+            BUSINESS_LOGS.info("Tolerance of {} reached, shift succeeded after {} iteration(s)", shiftTolerance, acShiftIterations.iterations());
+            if (dcPreShift) {
+                BUSINESS_LOGS.info("Shift load flows: {} DC in {} ms, {} AC in {} ms", lastShiftStatistics.dcIterations(), lastShiftStatistics.dcDurationMs(), lastShiftStatistics.acIterations(), lastShiftStatistics.acDurationMs());
+            }
+            if (!injectionJournal) {
+                network.getVariantManager().cloneVariant(workingVariantCopyId, initialVariantId, true);
 
-            // Step 5: Reset current variant with initial state
-            network.getVariantManager().setWorkingVariant(initialVariantId);
-            network.getVariantManager().removeVariant(processedVariantId);
-            network.getVariantManager().removeVariant(workingVariantCopyId);
+                // Step 5: Reset current variant with initial state
+                network.getVariantManager().setWorkingVariant(initialVariantId);
+                if (!reuseProcessedVariant) {
+                    network.getVariantManager().removeVariant(processedVariantId);
+                }
+                network.getVariantManager().removeVariant(workingVariantCopyId);
+            }
+            return scalingValuePerCountry;
         } finally {
+            if (journal != null) {
+                journal.close();
+            }
             // here set working variant generators pmin and pmax values to initial values
             //generatorLimitsHandler.resetInitialPminPmax(network);
         }
     }
 
+    // Scales then balances until exchanges are within tolerance, the shifted variant keeps the last scaled state
+    private ShiftIterations runShiftIterations(Network network, Map<String, Double> scalingValuePerCountry, ScalingJacobian scalingJacobian, ShiftReset shiftReset, MismatchComputation mismatchComputation) throws ShiftingException, GlskLimitationException {
+        int iterationCounter = 0;
+        Map<String, Double> mismatchPerBorder;
+        Map<String, Double> previousScalingPerCountry = null;
+        Map<String, Double> previousMismatchPerBorder = null;
+        do {
+            // Step 1: Perform the scaling given the current estimation
+            shiftNetPositions(network, scalingValuePerCountry);
+
+            // Step 2: Compute exchanges mismatch
+            mismatchPerBorder = mismatchComputation.compute();
+            ++iterationCounter;
+
+            // Step 3: Checks balance adjustment results
+            if (mismatchPerBorder.values().stream().allMatch(mismatch -> Math.abs(mismatch) < shiftTolerance)) {
+                return new ShiftIterations(true, iterationCounter, mismatchPerBorder);
+            }
+            // Reset current variant with initial state for each iteration (keeping pre-processing)
+            shiftReset.reset();
+            if (jacobianCorrection) {
+                if (previousScalingPerCountry != null) {
+                    scalingJacobian.update(getScalingVector(scalingValuePerCountry, previousScalingPerCountry), getMismatchVector(mismatchPerBorder, previousMismatchPerBorder));
+                }
+                previousScalingPerCountry = new HashMap<>(scalingValuePerCountry);
+                previousMismatchPerBorder = mismatchPerBorder;
+                updateScalingValuesWithJacobian(scalingValuePerCountry, mismatchPerBorder, scalingJacobian);
+            } else {
+                updateScalingValuesWithMismatch(scalingValuePerCountry, mismatchPerBorder);
+            }
+        } while (iterationCounter < maxShiftIterations);
+        return new ShiftIterations(false, iterationCounter, mismatchPerBorder);
+    }
+
+    private interface MismatchComputation {
+        Map<String, Double> compute() throws ShiftingException;
+    }
+
+    private interface ShiftReset {
+        void reset();
+    }
+
+    private record ShiftIterations(boolean succeeded, int iterations, Map<String, Double> mismatchPerBorder) {
+    }
+
+    public record ShiftStatistics(int dcIterations, long dcDurationMs, int acIterations, long acDurationMs) {
+    }
+
     static Map<String, Double> computeExchangeValuesMismatch(Network network, String workingVariantCopyId, Map<String, Double> targetExchanges, RaoParameters raoParameters) throws ShiftingException {
+        return computeExchangeValuesMismatch(network, workingVariantCopyId, targetExchanges, raoParameters, null);
+    }
+
+    static Map<String, Double> computeExchangeValuesMismatch(Network network, String workingVariantCopyId, Map<String, Double> targetExchanges, RaoParameters raoParameters, WarmStartLoadFlow warmStartLoadFlow) throws ShiftingException {
+        LoadFlowResult loadFlowResult = warmStartLoadFlow != null ? warmStartLoadFlow.run(network, workingVariantCopyId)
+            : LoadFlow.run(network, workingVariantCopyId, LocalComputationManager.getDefault(), LoadFlowAndSensitivityParameters.getSensitivityWithLoadFlowParameters(raoParameters).getLoadFlowParameters());
+        return computeExchangeValuesMismatch(network, targetExchanges, loadFlowResult);
+    }
+
+    private static Map<String, Double> computeExchangeValuesMismatch(Network network, Map<String, Double> targetExchanges, LoadFlowResult loadFlowResult) throws ShiftingException {
         Map<String, Double> mismatchPerBorder;
-        LoadFlowResult loadFlowResult = LoadFlow.run(network, workingVariantCopyId, LocalComputationManager.getDefault(), LoadFlowAndSensitivityParameters.getSensitivityWithLoadFlowParameters(raoParameters).getLoadFlowParameters());
         if (!loadFlowResult.isFullyConverged()) {
             String message = String.format("Load-flow computation diverged on network '%s' during balancing adjustment", network.getId());
             throw new ShiftingException(message);
@@ -143,6 +252,29 @@ public final class SweCsaNetworkShifter {
         return mismatchPerBorder;
     }
 
+    // rejects scaling values certain to hit a GLSK limit before the network is modified
+    private void checkGlskHeadroom(Map<String, Double> scalingValuePerCountry) throws GlskLimitationException {
+        if (glskHeadroomIndex == null) {
+            return;
+        }
+        List<String> limitingCountries = glskHeadroomIndex.getLimitingZones(scalingValuePerCountry, shiftTolerance);
+        if (!limitingCountries.isEmpty()) {
+            StringJoiner sj = new StringJoiner(", ", "There are GLSK limitation(s) in ", ".");
+            limitingCountries.forEach(sj::add);
+            BUSINESS_WARNS.warn("Scaling exceeds GLSK headroom, shift is not applied: {}", sj.toString());
+            throw new GlskLimitationException(sj.toString());
+        }
+    }
+
+    // zones with a compiled scaling plan are scaled with it instead of their scalable, plans must be built on the shifted network
+    public void setCompiledScalingPlans(Map<String, CompiledScalingPlan> compiledScalingPlans) {
+        this.compiledScalingPlans = compiledScalingPlans;
+    }
+
+    public void setGlskHeadroomIndex(GlskHeadroomIndex glskHeadroomIndex) {
+        this.glskHeadroomIndex = glskHeadroomIndex;
+    }
+
     private void shiftNetPositions(Network network, Map<String, Double> scalingValuePerCountry) throws GlskLimitationException {
         String logTargetCountriesShift = String.format("Target shifts by country: [ES = %.2f, FR = %.2f, PT = %.2f]",
             scalingValuePerCountry.get(EI_CODE_ES), scalingValuePerCountry.get(EI_CODE_FR), scalingValuePerCountry.get(EI_CODE_PT));
@@ -157,7 +289,9 @@ public final class SweCsaNetworkShifter {
             ScalingParameters scalingParameters = new ScalingParameters();
             scalingParameters.setPriority(ScalingParameters.Priority.RESPECT_OF_VOLUME_ASKED);
             scalingParameters.setReconnect(true);
-            double done = zonalScalable.getData(zoneId).scale(network, asked, scalingParameters);
+            CompiledScalingPlan compiledScalingPlan = compiledScalingPlans.get(zoneId);
+            double done = compiledScalingPlan != null ? compiledScalingPlan.scale(asked, scalingParameters.isReconnect())
+                : zonalScalable.getData(zoneId).scale(network, asked, scalingParameters);
             if (Math.abs(done - asked) > shiftTolerance) {
                 String logWarnIncompleteVariation = String.format("Incomplete variation on zone %s (target: %.2f, done: %.2f)", zoneId, asked, done);
                 BUSINESS_WARNS.warn(logWarnIncompleteVariation);
@@ -172,13 +306,82 @@ public final class SweCsaNetworkShifter {
         }
     }
 
-    private void preProcessNetwork(Network network, ScalableGeneratorConnector scalableGeneratorConnector, GeneratorLimitsHandler generatorLimitsHandler, String initialVariantId, String processedVariantId, String workingVariantCopyId) throws ShiftingException {
-        network.getVariantManager().cloneVariant(initialVariantId, processedVariantId, true);
-        network.getVariantManager().setWorkingVariant(processedVariantId);
-        scalableGeneratorConnector.fillGeneratorsInitialState(network, Set.of(Country.ES, Country.FR, Country.PT));
-        generatorLimitsHandler.setPminPmaxToDefaultValue(network, Set.of(Country.ES, Country.PT));
+    private String preProcessNetwork(Network network, ScalableGeneratorConnector scalableGeneratorConnector, GeneratorLimitsHandler generatorLimitsHandler, String initialVariantId, String workingVariantCopyId) throws ShiftingException {
+        String processedVariantId = reuseProcessedVariant ? REUSED_PROCESSED_VARIANT_ID : initialVariantId + " PROCESSED COPY";
+        if (!reuseProcessedVariant || !network.getVariantManager().getVariantIds().contains(processedVariantId)) {
+            network.getVariantManager().cloneVariant(initialVariantId, processedVariantId, true);
+            network.getVariantManager().setWorkingVariant(processedVariantId);
+            scalableGeneratorConnector.fillGeneratorsInitialState(network, Set.of(Country.ES, Country.FR, Country.PT));
+            generatorLimitsHandler.setPminPmaxToDefaultValue(network, Set.of(Country.ES, Country.PT));
+        }
         network.getVariantManager().cloneVariant(processedVariantId, workingVariantCopyId, true);
         network.getVariantManager().setWorkingVariant(workingVariantCopyId);
+        return processedVariantId;
+    }
+
+    private InjectionJournal preProcessNetworkInPlace(Network network, ScalableGeneratorConnector scalableGeneratorConnector, GeneratorLimitsHandler generatorLimitsHandler) throws ShiftingException {
+        scalableGeneratorConnector.fillGeneratorsInitialState(network, Set.of(Country.ES, Country.FR, Country.PT));
+        generatorLimitsHandler.setPminPmaxToDefaultValue(network, Set.of(Country.ES, Country.PT));
+        return InjectionJournal.record(network, zonalScalable);
+    }
+
+    // The processed variant is built from the first shifted variant and kept until released, every shifted variant must then be a copy of the same initial state
+    public void setReuseProcessedVariant(boolean reuseProcessedVariant) {
+        this.reuseProcessedVariant = reuseProcessedVariant;
+    }
+
+    // Shift is applied in place on the working variant, without processed and working copies, ignoring processed variant reuse
+    public void setInjectionJournal(boolean injectionJournal) {
+        this.injectionJournal = injectionJournal;
+    }
+
+    public void releaseProcessedVariant(Network network) {
+        if (network.getVariantManager().getVariantIds().contains(REUSED_PROCESSED_VARIANT_ID)) {
+            network.getVariantManager().removeVariant(REUSED_PROCESSED_VARIANT_ID);
+        }
+    }
+
+    // Newton correction with the jacobian estimated from previous iterations, raw mismatch correction when it cannot be inverted
+    void updateScalingValuesWithJacobian(Map<String, Double> scalingValuesByCountry, Map<String, Double> mismatchPerBorder, ScalingJacobian scalingJacobian) {
+        double[] scalingVariation = scalingJacobian.scalingVariation(getMismatchVector(mismatchPerBorder, null));
+        if (scalingVariation == null) {
+            updateScalingValuesWithMismatch(scalingValuesByCountry, mismatchPerBorder);
+            return;
+        }
+        BUSINESS_LOGS.info("Adjusting target shifts with estimated exchanges sensitivities to reduce mismatch");
+        scalingValuesByCountry.put(EI_CODE_FR, scalingValuesByCountry.get(EI_CODE_FR) + scalingVariation[0]);
+        scalingValuesByCountry.put(EI_CODE_PT, scalingValuesByCountry.get(EI_CODE_PT) + scalingVariation[1]);
+        scalingValuesByCountry.put(EI_CODE_ES, scalingValuesByCountry.get(EI_CODE_ES) - scalingVariation[0] - scalingVariation[1]);
+    }
+
+    private static double[] getScalingVector(Map<String, Double> scalingValuesByCountry, Map<String, Double> previousScalingValuesByCountry) {
+        return new double[]{
+            scalingValuesByCountry.get(EI_CODE_FR) - previousScalingValuesByCountry.get(EI_CODE_FR),
+            scalingValuesByCountry.get(EI_CODE_PT) - previousScalingValuesByCountry.get(EI_CODE_PT)
+        };
+    }
+
+    private static double[] getMismatchVector(Map<String, Double> mismatchPerBorder, Map<String, Double> previousMismatchPerBorder) {
+        double[] mismatch = {mismatchPerBorder.get(DichotomyDirection.ES_FR.toString()), mismatchPerBorder.get(DichotomyDirection.ES_PT.toString())};
+        if (previousMismatchPerBorder != null) {
+            mismatch[0] -= previousMismatchPerBorder.get(DichotomyDirection.ES_FR.toString());
+            mismatch[1] -= previousMismatchPerBorder.get(DichotomyDirection.ES_PT.toString());
+        }
+        return mismatch;
+    }
+
+    // scaling values are corrected from the exchanges sensitivities estimated along shift iterations instead of the raw mismatch
+    public void setJacobianCorrection(boolean jacobianCorrection) {
+        this.jacobianCorrection = jacobianCorrection;
+    }
+
+    public void setDcPreShift(boolean dcPreShift) {
+        this.dcPreShift = dcPreShift;
+    }
+
+    // load flows count and duration of the last balancing that ran all its iterations, null before any
+    public ShiftStatistics getLastShiftStatistics() {
+        return lastShiftStatistics;
     }
 
     public void updateScalingValuesWithMismatch(Map<String, Double> scalingValuesByCountry, Map<String, Double> mismatchPerBorder) {
@@ -57,15 +57,50 @@ public class SweCsaRaoValidator {
     }
 
     public DichotomyStepResult validateNetworkForPortugueseBorder(Network network, Crac crac, String cracUri, ZonalData<Scalable> scalableZonalData, RaoParameters raoParameters, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues) {
-        return validateNetworkForBorder(network, crac, cracUri, csaRequest, raoParametersUrl, counterTradingValues, "PT-ES", scalableZonalData, raoParameters);
+        return validateNetworkForPortugueseBorder(network, crac, cracUri, scalableZonalData, raoParameters, csaRequest, raoParametersUrl, counterTradingValues, csaRequest.getId());
+    }
+
+    public DichotomyStepResult validateNetworkForPortugueseBorder(Network network, Crac crac, String cracUri, ZonalData<Scalable> scalableZonalData, RaoParameters raoParameters, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues, String runId) {
+        return validateNetworkForPortugueseBorder(network, crac, cracUri, scalableZonalData, raoParameters, csaRequest, raoParametersUrl, counterTradingValues, runId, null);
+    }
+
+    public DichotomyStepResult validateNetworkForPortugueseBorder(Network network, Crac crac, String cracUri, ZonalData<Scalable> scalableZonalData, RaoParameters raoParameters, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues, String runId, String networkUrl) {
+        return validateNetworkForBorder(network, crac, cracUri, csaRequest, raoParametersUrl, counterTradingValues, "PT-ES", scalableZonalData, raoParameters, runId, networkUrl);
     }
 
     public DichotomyStepResult validateNetworkForFrenchBorder(Network network, Crac crac, String cracUri, ZonalData<Scalable> scalableZonalData, RaoParameters raoParameters, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues) {
-        return validateNetworkForBorder(network, crac, cracUri, csaRequest, raoParametersUrl, counterTradingValues, "FR-ES", scalableZonalData, raoParameters);
+        return validateNetworkForFrenchBorder(network, crac, cracUri, scalableZonalData, raoParameters, csaRequest, raoParametersUrl, counterTradingValues, csaRequest.getId());
+    }
+
+    public DichotomyStepResult validateNetworkForFrenchBorder(Network network, Crac crac, String cracUri, ZonalData<Scalable> scalableZonalData, RaoParameters raoParameters, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues, String runId) {
+        return validateNetworkForFrenchBorder(network, crac, cracUri, scalableZonalData, raoParameters, csaRequest, raoParametersUrl, counterTradingValues, runId, null);
+    }
+
+    public DichotomyStepResult validateNetworkForFrenchBorder(Network network, Crac crac, String cracUri, ZonalData<Scalable> scalableZonalData, RaoParameters raoParameters, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues, String runId, String networkUrl) {
+        return validateNetworkForBorder(network, crac, cracUri, csaRequest, raoParametersUrl, counterTradingValues, "FR-ES", scalableZonalData, raoParameters, runId, networkUrl);
     }
 
-    private DichotomyStepResult validateNetworkForBorder(Network network, Crac crac, String cracUri, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues, String border, ZonalData<Scalable> scalableZonalDataFilteredForSweCountries, RaoParameters raoParameters) {
-        RaoRequest raoRequest = buildRaoRequest(counterTradingValues.print(), csaRequest.getBusinessTimestamp(), csaRequest.getId(), network, cracUri, raoParametersUrl, border);
+    // exports the working variant once for all the border RAO requests of a step, returns the network pre-signed url.
+    // Every step of a task shifted to the same CT values gets the same network, which can then be uploaded once
+    public String saveScaledNetwork(CsaRequest csaRequest, Network network, CounterTradingValues counterTradingValues) {
+        String scaledNetworkPath = generateScaledNetworkPath(network, csaRequest.getBusinessTimestamp(), counterTradingValues.print());
+        return fileExporter.saveNetworkInArtifact(csaRequest.getId(), network, scaledNetworkPath, getNetworkKey(counterTradingValues));
+    }
+
+    // networks scaled by a task to the same CT values of both borders are identical
+    static String getNetworkKey(CounterTradingValues counterTradingValues) {
+        return "PT-ES:" + counterTradingValues.ptEsCt() + "/FR-ES:" + counterTradingValues.frEsCt();
+    }
+
+    // for steps on the unscaled input network, the grid model url is reused when rao-runner can import it
+    public String saveInputNetwork(CsaRequest csaRequest, Network network, CounterTradingValues counterTradingValues) {
+        return fileExporter.getReusableNetworkUrl(csaRequest.getGridModelUri())
+            .orElseGet(() -> saveScaledNetwork(csaRequest, network, counterTradingValues));
+    }
+
+    private DichotomyStepResult validateNetworkForBorder(Network network, Crac crac, String cracUri, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues, String border, ZonalData<Scalable> scalableZonalDataFilteredForSweCountries, RaoParameters raoParameters, String runId, String networkUrl) {
+        String scaledNetworkPreSignedUrl = networkUrl != null ? networkUrl : saveScaledNetwork(csaRequest, network, counterTradingValues);
+        RaoRequest raoRequest = buildRaoRequest(counterTradingValues.print(), csaRequest.getBusinessTimestamp(), csaRequest.getId(), runId, scaledNetworkPreSignedUrl, cracUri, raoParametersUrl, border);
 
         try {
             businessLogger.info("[{}] : RAO request sent: {}", border, raoRequest);
@@ -108,7 +143,7 @@ public class SweCsaRaoValidator {
                 }
             }
 
-            return DichotomyStepResult.fromNetworkValidationResult(raoResult, isSecure, raoSuccessResponse, counterTradingValues);
+            return DichotomyStepResult.fromNetworkValidationResult(raoResult, isSecure, raoSuccessResponse, counterTradingValues, getBorderWorstMargin(raoResult, crac, border));
         } catch (Exception e) {
             throw new CsaInternalException(MDC.get("gridcapaTaskId"), "RAO run failed", e);
         }
@@ -126,6 +161,11 @@ public class SweCsaRaoValidator {
         }
     }
 
+    double getBorderWorstMargin(RaoResult raoResult, Crac crac, String border) {
+        Set<FlowCnec> flowCnecs = getBorderFlowCnecs(crac, border);
+        return flowCnecs.isEmpty() ? Double.NaN : getFlowCnecSmallestMargin(raoResult, flowCnecs).getRight();
+    }
+
     static Set<FlowCnec> getBorderFlowCnecs(Crac crac, String border) {
         return crac.getFlowCnecs().stream()
             .filter(flowCnec -> flowCnec.isOptimized() && flowCnec.getBorder().equals(border))
@@ -145,13 +185,11 @@ public class SweCsaRaoValidator {
         return Pair.of(flowCnecId, smallestMargin);
     }
 
-    private RaoRequest buildRaoRequest(String stepFolder, String timestamp, String taskId, Network network, String cracUrl, String raoParametersUrl, String border) {
-        String scaledNetworkPath = generateScaledNetworkPath(network, timestamp, stepFolder);
-        String scaledNetworkPreSignedUrl = fileExporter.saveNetworkInArtifact(taskId, network, scaledNetworkPath);
-        String raoResultDestination = generateBorderRaoResultPath(border, timestamp, stepFolder);
+    private RaoRequest buildRaoRequest(String stepFolder, String timestamp, String taskId, String runId, String scaledNetworkPreSignedUrl, String cracUrl, String raoParametersUrl, String border) {
+        String raoResultDestination = generateBorderRaoResultPath(border, timestamp, stepFolder, runId);
         return new RaoRequest.RaoRequestBuilder()
             .withId(taskId)
-            .withRunId(taskId)
+            .withRunId(runId)
             .withNetworkFileUrl(scaledNetworkPreSignedUrl)
             .withCracFileUrl(cracUrl)
             .withRaoParametersFileUrl(raoParametersUrl)
@@ -165,12 +203,13 @@ public class SweCsaRaoValidator {
         return "artifacts" + "/" + offsetDateTime.getYear() + "/" + offsetDateTime.getMonthValue() + "/" + offsetDateTime.getDayOfMonth() + "/" + offsetDateTime.getHour() + "_" + offsetDateTime.getMinute() + "/" + stepFolder;
     }
 
-    private String generateBorderRaoResultPath(String border, String timestamp, String stepFolder) {
-        return generateArtifactsFolder(timestamp, stepFolder) + "/" + border;
+    // runs of the same step, like a speculative step launched again after being cancelled, must not share their results
+    private String generateBorderRaoResultPath(String border, String timestamp, String stepFolder, String runId) {
+        return generateArtifactsFolder(timestamp, stepFolder) + "/" + runId + "/" + border;
     }
 
     private String generateScaledNetworkPath(Network network, String timestamp, String stepFolder) {
-        return generateArtifactsFolder(timestamp, stepFolder) + "/" + "network-" + network.getVariantManager().getWorkingVariantId() + ".xiidm";
+        return generateArtifactsFolder(timestamp, stepFolder) + "/" + "network-" + network.getVariantManager().getWorkingVariantId() + "." + fileExporter.getNetworkArtifactExtension();
     }
 
 }
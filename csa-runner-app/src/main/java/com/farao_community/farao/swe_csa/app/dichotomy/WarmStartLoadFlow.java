@@ -0,0 +1,33 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.powsybl.computation.local.LocalComputationManager;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.loadflow.LoadFlow;
+import com.powsybl.loadflow.LoadFlowParameters;
+import com.powsybl.loadflow.LoadFlowResult;
+
+import static com.powsybl.openrao.commons.logs.OpenRaoLoggerProvider.BUSINESS_WARNS;
+
+/**
+ * Load flow parameters starting from the voltages held by the computed variant, with a retry from initial voltages when it does not converge.
+ * Warm starts rely on variant cloning: a variant cloned from a converged one holds its voltages, a fresh variant has none to start from.
+ */
+public final class WarmStartLoadFlow {
+    private final LoadFlowParameters coldStartParameters;
+    private final LoadFlowParameters warmStartParameters;
+
+    public WarmStartLoadFlow(LoadFlowParameters loadFlowParameters) {
+        this.coldStartParameters = loadFlowParameters;
+        this.warmStartParameters = loadFlowParameters.copy().setVoltageInitMode(LoadFlowParameters.VoltageInitMode.PREVIOUS_VALUES);
+    }
+
+    public LoadFlowResult run(Network network, String variantId) {
+        LoadFlowResult loadFlowResult = LoadFlow.run(network, variantId, LocalComputationManager.getDefault(), warmStartParameters);
+        if (!loadFlowResult.isFullyConverged()) {
+            // cold start does not read the variant voltages, a diverged retry fails the shift which then resets the variant
+            BUSINESS_WARNS.warn("Load flow started from previous voltages did not converge on network '{}', running it again from initial voltages", network.getId());
+            loadFlowResult = LoadFlow.run(network, variantId, LocalComputationManager.getDefault(), coldStartParameters);
+        }
+        return loadFlowResult;
+    }
+}
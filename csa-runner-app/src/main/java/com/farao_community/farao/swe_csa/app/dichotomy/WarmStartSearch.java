@@ -0,0 +1,76 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Secure bound found around CT of the same or previous hour instead of validating the maximum counter trading,
+// sequential steps then narrowing the bracket and the CT found being saved for the next hours
+class WarmStartSearch extends SequentialSearch {
+    private final CounterTradingHistoryStore counterTradingHistoryStore;
+    private final double margin;
+
+    WarmStartSearch(CounterTradingHistoryStore counterTradingHistoryStore, double margin) {
+        this.counterTradingHistoryStore = counterTradingHistoryStore;
+        this.margin = margin;
+    }
+
+    // Verifies both ends of a narrow bracket around counter trading found for the same or previous timestamp,
+    // null if no end is secure or the search is stopped before
+    @Override
+    public ParallelDichotomiesResult findSecureBound(DichotomySteps steps, Index index, CounterTradingValues maxCounterTradingValues) {
+        Optional<CounterTradingHistory> counterTradingHistory = counterTradingHistoryStore.find(steps.context().csaRequest().getBusinessTimestamp());
+        if (counterTradingHistory.isEmpty()) {
+            steps.businessLogger().info("No counter trading history found for warm start");
+            return null;
+        }
+        CounterTradingValues lowerCounterTradingValues = new CounterTradingValues(
+            getWarmStartBound(counterTradingHistory.get().ptEsCt() - margin, maxCounterTradingValues.ptEsCt()),
+            getWarmStartBound(counterTradingHistory.get().frEsCt() - margin, maxCounterTradingValues.frEsCt()));
+        CounterTradingValues upperCounterTradingValues = new CounterTradingValues(
+            getWarmStartBound(counterTradingHistory.get().ptEsCt() + margin, maxCounterTradingValues.ptEsCt()),
+            getWarmStartBound(counterTradingHistory.get().frEsCt() + margin, maxCounterTradingValues.frEsCt()));
+        steps.businessLogger().info("Warm start from counter trading history, testing CT PT-ES: '{}' to '{}', and CT FR-ES: '{}' to '{}'", lowerCounterTradingValues.ptEsCt(), upperCounterTradingValues.ptEsCt(), lowerCounterTradingValues.frEsCt(), upperCounterTradingValues.frEsCt());
+
+        // input network result is already known
+        List<CounterTradingValues> warmStartCounterTradingValues = Stream.of(lowerCounterTradingValues, upperCounterTradingValues)
+            .filter(counterTradingValues -> counterTradingValues.ptEsCt() != 0 || counterTradingValues.frEsCt() != 0)
+            .distinct()
+            .toList();
+        if (warmStartCounterTradingValues.isEmpty() || secureBoundSearchShouldStop(steps)) {
+            return null;
+        }
+        // bracket round counts as one step in the average step duration of the time budget
+        Instant stepStart = steps.context().timeBudget().startStep();
+        List<ParallelDichotomiesResult> warmStartResults;
+        try {
+            warmStartResults = steps.shiftAndValidateConcurrently(warmStartCounterTradingValues, roundResults -> { });
+        } finally {
+            steps.context().timeBudget().endStep(stepStart);
+        }
+
+        ParallelDichotomiesResult bestSecureResult = null;
+        // a bracket end that cannot be shifted tells nothing about the other one
+        for (ParallelDichotomiesResult parallelDichotomiesResult : warmStartResults.stream().filter(result -> !DichotomySteps.isFailed(result)).toList()) {
+            boolean ptEsCtSecure = index.addPtEsDichotomyStepResult(parallelDichotomiesResult.getCounterTradingValues().ptEsCt(), parallelDichotomiesResult.getPtEsResult());
+            boolean frEsCtSecure = index.addFrEsDichotomyStepResult(parallelDichotomiesResult.getCounterTradingValues().frEsCt(), parallelDichotomiesResult.getFrEsResult());
+            if (ptEsCtSecure && frEsCtSecure && (bestSecureResult == null || DichotomySteps.getTotalCounterTrading(parallelDichotomiesResult) < DichotomySteps.getTotalCounterTrading(bestSecureResult))) {
+                bestSecureResult = parallelDichotomiesResult;
+            }
+        }
+        if (bestSecureResult == null) {
+            steps.businessLogger().info("Warm start bracket is not secure, falling back to full search");
+        }
+        return bestSecureResult;
+    }
+
+    private static double getWarmStartBound(double counterTrading, double maxCounterTrading) {
+        return Math.max(0, Math.min(counterTrading, maxCounterTrading));
+    }
+
+    @Override
+    public void searchEnded(DichotomySteps steps, Index index) {
+        counterTradingHistoryStore.save(steps.context().csaRequest().getBusinessTimestamp(), CounterTradingHistory.fromIndex(index));
+    }
+}
@@ -2,6 +2,7 @@ package com.farao_community.farao.swe_csa.app.s3;
 
 import com.farao_community.farao.swe_csa.api.exception.CsaInternalException;
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
 import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
@@ -25,6 +26,8 @@ public final class S3AdapterUtil {
     private static final Logger LOGGER = LoggerFactory.getLogger(S3AdapterUtil.class);
 
     private static final int DEFAULT_DOWNLOAD_LINK_EXPIRY_IN_DAYS = 7;
+    // minimum multipart part size, the buffer allocated for a stream of unknown size
+    private static final long UNKNOWN_SIZE_PART_SIZE = 5L * 1024 * 1024;
 
     public static void createBucketIfDoesNotExist(MinioClient minioClient, String bucket) {
         try {
@@ -38,9 +41,15 @@ public final class S3AdapterUtil {
     }
 
     public static void uploadFile(MinioClient minioClient, String pathDestination, InputStream sourceInputStream, String bucket) {
+        uploadFile(minioClient, pathDestination, sourceInputStream, bucket, -1);
+    }
+
+    // part size is computed by the client when the object size is known
+    public static void uploadFile(MinioClient minioClient, String pathDestination, InputStream sourceInputStream, String bucket, long objectSize) {
         try {
             createBucketIfDoesNotExist(minioClient, bucket);
-            minioClient.putObject(PutObjectArgs.builder().bucket(bucket).object(pathDestination).stream(sourceInputStream, -1, 50000000).build());
+            long partSize = objectSize < 0 ? UNKNOWN_SIZE_PART_SIZE : -1;
+            minioClient.putObject(PutObjectArgs.builder().bucket(bucket).object(pathDestination).stream(sourceInputStream, objectSize, partSize).build());
         } catch (Exception e) {
             LOGGER.error(e.getMessage(), e);
             throw new CsaInternalException(MDC.get("gridcapaTaskId"), String.format("Exception occurred while uploading file: %s, to minio server", pathDestination));
@@ -55,6 +64,19 @@ public final class S3AdapterUtil {
         }
     }
 
+    public static Optional<byte[]> readFileIfExists(MinioClient minioClient, String minioObjectName, String bucket) {
+        try (InputStream inputStream = minioClient.getObject(GetObjectArgs.builder().bucket(bucket).object(minioObjectName).build())) {
+            return Optional.of(inputStream.readAllBytes());
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code()) || "NoSuchBucket".equals(e.errorResponse().code())) {
+                return Optional.empty();
+            }
+            throw new CsaInternalException(MDC.get("gridcapaTaskId"), String.format("Cannot retrieve file '%s'", minioObjectName), e);
+        } catch (Exception e) {
+            throw new CsaInternalException(MDC.get("gridcapaTaskId"), String.format("Cannot retrieve file '%s'", minioObjectName), e);
+        }
+    }
+
     public static Path copyFileInTargetSystemPath(MinioClient minioClient, String minioObjectName, Path targetTempPath, String bucket) {
         try (InputStream raoRequestInputStream = Optional.of(minioClient.getObject(GetObjectArgs
             .builder()
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
 import java.time.OffsetDateTime;
+import java.util.Optional;
 
 @Component
 public class S3ArtifactsAdapter {
@@ -32,6 +33,15 @@ public class S3ArtifactsAdapter {
         S3AdapterUtil.uploadFile(minioClient, basePath + "/" + pathDestination, sourceInputStream, bucket);
     }
 
+    public void uploadFile(String pathDestination, InputStream sourceInputStream, long objectSize) {
+        createBucketIfDoesNotExist();
+        S3AdapterUtil.uploadFile(minioClient, basePath + "/" + pathDestination, sourceInputStream, bucket, objectSize);
+    }
+
+    public Optional<byte[]> readFileIfExists(String path) {
+        return S3AdapterUtil.readFileIfExists(minioClient, basePath + "/" + path, bucket);
+    }
+
     public String generatePreSignedUrl(String minioPath) {
         return S3AdapterUtil.generatePreSignedUrl(minioClient, basePath + "/" + minioPath, bucket);
     }
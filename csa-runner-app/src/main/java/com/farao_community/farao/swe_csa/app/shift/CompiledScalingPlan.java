@@ -0,0 +1,91 @@
+package com.farao_community.farao.swe_csa.app.shift;
+
+import com.powsybl.iidm.network.Generator;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Proportional scaling of a zone generators respecting the volume asked, as Scalable.proportional does, on generator references resolved once.
+// Active power limits are read from the generators at each scaling since shift pre-processing changes them. Not thread safe.
+public final class CompiledScalingPlan {
+    private static final double EPSILON = 1e-6;
+    private final Generator[] generators;
+    private final double[] factors;
+    private final double[] minTargetPs;
+    private final double[] maxTargetPs;
+    private final boolean[] saturated;
+
+    CompiledScalingPlan(List<Generator> generators, List<Double> factors) {
+        this(generators, factors, filled(generators.size(), Double.NEGATIVE_INFINITY), filled(generators.size(), Double.POSITIVE_INFINITY));
+    }
+
+    // target P of each generator is also kept within the limits of its own scalable, as a GLSK generator scalable does
+    CompiledScalingPlan(List<Generator> generators, List<Double> factors, double[] minTargetPs, double[] maxTargetPs) {
+        this.generators = generators.toArray(new Generator[0]);
+        this.factors = factors.stream().mapToDouble(Double::doubleValue).toArray();
+        this.minTargetPs = minTargetPs;
+        this.maxTargetPs = maxTargetPs;
+        this.saturated = new boolean[this.generators.length];
+    }
+
+    private static double[] filled(int size, double value) {
+        double[] values = new double[size];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    public int size() {
+        return generators.length;
+    }
+
+    // distributes the asked variation on the generators according to their factors, the share a generator cannot take is spread on the others
+    public double scale(double asked, boolean reconnect) {
+        Arrays.fill(saturated, false);
+        int activeGenerators = generators.length;
+        double done = 0;
+        while (Math.abs(asked - done) > EPSILON && activeGenerators > 0) {
+            double remaining = asked - done;
+            double activeFactorSum = 0;
+            for (int i = 0; i < generators.length; i++) {
+                if (!saturated[i]) {
+                    activeFactorSum += factors[i];
+                }
+            }
+            boolean anySaturated = false;
+            for (int i = 0; i < generators.length; i++) {
+                if (!saturated[i]) {
+                    double share = remaining * factors[i] / activeFactorSum;
+                    double doneOnGenerator = scaleGenerator(generators[i], share, reconnect, minTargetPs[i], maxTargetPs[i]);
+                    done += doneOnGenerator;
+                    if (Math.abs(share - doneOnGenerator) > EPSILON) {
+                        saturated[i] = true;
+                        activeGenerators--;
+                        anySaturated = true;
+                    }
+                }
+            }
+            if (!anySaturated) {
+                break;
+            }
+        }
+        return done;
+    }
+
+    private static double scaleGenerator(Generator generator, double asked, boolean reconnect, double scalableMinTargetP, double scalableMaxTargetP) {
+        if (!generator.getTerminal().isConnected()) {
+            if (!reconnect) {
+                return 0;
+            }
+            generator.getTerminal().connect();
+        }
+        double targetP = generator.getTargetP();
+        double minTargetP = Math.max(generator.getMinP(), scalableMinTargetP);
+        double maxTargetP = Math.min(generator.getMaxP(), scalableMaxTargetP);
+        if (targetP < minTargetP || targetP > maxTargetP) {
+            return 0;
+        }
+        double variation = asked > 0 ? Math.min(asked, maxTargetP - targetP) : Math.max(asked, minTargetP - targetP);
+        generator.setTargetP(targetP + variation);
+        return variation;
+    }
+}
@@ -0,0 +1,114 @@
+package com.farao_community.farao.swe_csa.app.shift;
+
+import com.farao_community.farao.dichotomy.api.exceptions.ShiftingException;
+import com.farao_community.farao.gridcapa_swe_commons.shift.GeneratorLimitsHandler;
+import com.farao_community.farao.gridcapa_swe_commons.shift.ScalableGeneratorConnector;
+import com.farao_community.farao.swe_csa.app.dichotomy.CounterTradingValues;
+import com.powsybl.glsk.commons.ZonalData;
+import com.powsybl.iidm.modification.scalable.Scalable;
+import com.powsybl.iidm.network.Country;
+import com.powsybl.iidm.network.Generator;
+import com.powsybl.iidm.network.Injection;
+import com.powsybl.iidm.network.Network;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.Math.signum;
+
+// Upward and downward volumes each zone GLSK can scale, once generators are pre-processed as the shifter does,
+// a scaling asked beyond them by more than the margin is certain to end with a GLSK limitation
+public final class GlskHeadroomIndex {
+    public static final double HEADROOM_MARGIN = 0.1;
+    private static final String HEADROOM_VARIANT_ID = "GLSK HEADROOM";
+    private final Map<String, Double> upwardHeadroomPerZone;
+    private final Map<String, Double> downwardHeadroomPerZone;
+
+    public GlskHeadroomIndex(Map<String, Double> upwardHeadroomPerZone, Map<String, Double> downwardHeadroomPerZone) {
+        this.upwardHeadroomPerZone = upwardHeadroomPerZone;
+        this.downwardHeadroomPerZone = downwardHeadroomPerZone;
+    }
+
+    public static GlskHeadroomIndex compute(Network network, ZonalData<Scalable> zonalScalable) throws ShiftingException {
+        String initialVariantId = network.getVariantManager().getWorkingVariantId();
+        network.getVariantManager().cloneVariant(initialVariantId, HEADROOM_VARIANT_ID, true);
+        network.getVariantManager().setWorkingVariant(HEADROOM_VARIANT_ID);
+        try {
+            new ScalableGeneratorConnector(zonalScalable).fillGeneratorsInitialState(network, Set.of(Country.ES, Country.FR, Country.PT));
+            new GeneratorLimitsHandler(zonalScalable).setPminPmaxToDefaultValue(network, Set.of(Country.ES, Country.PT));
+            Map<String, Double> upwardHeadroomPerZone = new HashMap<>();
+            Map<String, Double> downwardHeadroomPerZone = new HashMap<>();
+            zonalScalable.getDataPerZone().forEach((zoneId, scalable) -> {
+                double upwardHeadroom = 0;
+                double downwardHeadroom = 0;
+                for (Injection<?> injection : scalable.filterInjections(network)) {
+                    if (injection instanceof Generator generator) {
+                        // a generator whose set point is out of its limits is not scaled at all
+                        if (generator.getTargetP() >= generator.getMinP() && generator.getTargetP() <= generator.getMaxP()) {
+                            upwardHeadroom += generator.getMaxP() - generator.getTargetP();
+                            downwardHeadroom += generator.getTargetP() - generator.getMinP();
+                        }
+                    } else {
+                        upwardHeadroom = Double.POSITIVE_INFINITY;
+                        downwardHeadroom = Double.POSITIVE_INFINITY;
+                    }
+                }
+                upwardHeadroomPerZone.put(zoneId, upwardHeadroom);
+                downwardHeadroomPerZone.put(zoneId, downwardHeadroom);
+            });
+            return new GlskHeadroomIndex(upwardHeadroomPerZone, downwardHeadroomPerZone);
+        } finally {
+            network.getVariantManager().setWorkingVariant(initialVariantId);
+            network.getVariantManager().removeVariant(HEADROOM_VARIANT_ID);
+        }
+    }
+
+    public double getUpwardHeadroom(String zoneId) {
+        return upwardHeadroomPerZone.getOrDefault(zoneId, Double.POSITIVE_INFINITY);
+    }
+
+    public double getDownwardHeadroom(String zoneId) {
+        return downwardHeadroomPerZone.getOrDefault(zoneId, Double.POSITIVE_INFINITY);
+    }
+
+    // highest counter-trading on the border between the zone and Spain the GLSK can follow, with the dispatching of ShiftDispatcher,
+    // the other border with Spain being left unchanged
+    public double getMaxCounterTrading(String zoneId, double zoneNetPosition) {
+        if (zoneNetPosition >= 0) {
+            return Math.min(getDownwardHeadroom(zoneId), getUpwardHeadroom(ShiftDispatcher.EI_CODE_ES));
+        }
+        return Math.min(getUpwardHeadroom(zoneId), getDownwardHeadroom(ShiftDispatcher.EI_CODE_ES));
+    }
+
+    // highest counter-trading on both borders with Spain the GLSKs can follow together: when both borders CT scale Spain in the same direction,
+    // Spain follows their sum and its headroom is shared between the borders in proportion to their own maximum
+    public CounterTradingValues getMaxCounterTradingValues(CounterTradingValues maxCounterTradingValues, double ptNetPosition, double frNetPosition) {
+        double ptEsMaxCt = Math.min(maxCounterTradingValues.ptEsCt(), getMaxCounterTrading(ShiftDispatcher.EI_CODE_PT, ptNetPosition));
+        double frEsMaxCt = Math.min(maxCounterTradingValues.frEsCt(), getMaxCounterTrading(ShiftDispatcher.EI_CODE_FR, frNetPosition));
+        if (ptNetPosition >= 0 != frNetPosition >= 0) {
+            // borders CT scale Spain in opposite directions, each border alone is the worst case
+            return new CounterTradingValues(ptEsMaxCt, frEsMaxCt);
+        }
+        double esHeadroom = ptNetPosition >= 0 ? getUpwardHeadroom(ShiftDispatcher.EI_CODE_ES) : getDownwardHeadroom(ShiftDispatcher.EI_CODE_ES);
+        double totalMaxCt = ptEsMaxCt + frEsMaxCt;
+        if (totalMaxCt <= esHeadroom) {
+            return new CounterTradingValues(ptEsMaxCt, frEsMaxCt);
+        }
+        double esHeadroomShare = esHeadroom / totalMaxCt;
+        return new CounterTradingValues(ptEsMaxCt * esHeadroomShare, frEsMaxCt * esHeadroomShare);
+    }
+
+    public List<String> getLimitingZones(Map<String, Double> scalingValuePerZone, double tolerance) {
+        List<String> limitingZones = new ArrayList<>();
+        scalingValuePerZone.forEach((zoneId, scalingValue) -> {
+            double headroom = signum(scalingValue) >= 0 ? getUpwardHeadroom(zoneId) : getDownwardHeadroom(zoneId);
+            if (Math.abs(scalingValue) > headroom * (1 + HEADROOM_MARGIN) + tolerance) {
+                limitingZones.add(zoneId);
+            }
+        });
+        return limitingZones;
+    }
+}
@@ -4,7 +4,9 @@ import com.farao_community.farao.swe_csa.app.dichotomy.CounterTradingValues;
 import com.powsybl.iidm.network.Country;
 import com.powsybl.openrao.commons.EICode;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static java.lang.Math.signum;
@@ -12,6 +14,8 @@ import static java.lang.Math.signum;
 public class ShiftDispatcher {
 
     private final Map<String, Double> initialNetPositions;
+    private final List<ConvergedShift> convergedShifts = new ArrayList<>();
+    private boolean learnedEstimate = false;
     public static final String EI_CODE_FR = new EICode(Country.FR).getAreaCode();
     public static final String EI_CODE_PT = new EICode(Country.PT).getAreaCode();
     public static final String EI_CODE_ES = new EICode(Country.ES).getAreaCode();
@@ -20,7 +24,32 @@ public class ShiftDispatcher {
         this.initialNetPositions = initialNetPositions;
     }
 
-    public Map<String, Double> dispatch(CounterTradingValues counterTradingValues) {
+    // the naive dispatching is corrected with the scaling the shift needed on top of it for already converged counter-trading values
+    public void setLearnedEstimate(boolean learnedEstimate) {
+        this.learnedEstimate = learnedEstimate;
+    }
+
+    public synchronized Map<String, Double> dispatch(CounterTradingValues counterTradingValues) {
+        Map<String, Double> dispatching = naiveDispatch(counterTradingValues);
+        if (learnedEstimate && !convergedShifts.isEmpty()) {
+            Map<String, Double> scalingCorrection = interpolateScalingCorrection(counterTradingValues);
+            scalingCorrection.forEach((zone, correction) -> dispatching.merge(zone, correction, Double::sum));
+        }
+        return dispatching;
+    }
+
+    public synchronized void recordConvergedScaling(CounterTradingValues counterTradingValues, Map<String, Double> convergedScaling) {
+        if (!learnedEstimate) {
+            return;
+        }
+        Map<String, Double> naiveDispatching = naiveDispatch(counterTradingValues);
+        Map<String, Double> scalingCorrection = new HashMap<>();
+        naiveDispatching.forEach((zone, scaling) -> scalingCorrection.put(zone, convergedScaling.get(zone) - scaling));
+        convergedShifts.removeIf(convergedShift -> convergedShift.counterTradingValues().equals(counterTradingValues));
+        convergedShifts.add(new ConvergedShift(counterTradingValues, scalingCorrection));
+    }
+
+    private Map<String, Double> naiveDispatch(CounterTradingValues counterTradingValues) {
         Map<String, Double> dispatching = new HashMap<>();
         dispatching.put(EI_CODE_FR, -counterTradingValues.frEsCt() * signum(initialNetPositions.get(Country.FR.getName())));
         dispatching.put(EI_CODE_PT, -counterTradingValues.ptEsCt() * signum(initialNetPositions.get(Country.PT.getName())));
@@ -29,4 +58,25 @@ public class ShiftDispatcher {
         return dispatching;
     }
 
+    // Inverse squared distance weighting of the corrections of converged counter-trading values, the exact correction when already converged
+    private Map<String, Double> interpolateScalingCorrection(CounterTradingValues counterTradingValues) {
+        Map<String, Double> weightedCorrection = new HashMap<>();
+        double weightSum = 0;
+        for (ConvergedShift convergedShift : convergedShifts) {
+            double distance = Math.hypot(convergedShift.counterTradingValues().ptEsCt() - counterTradingValues.ptEsCt(), convergedShift.counterTradingValues().frEsCt() - counterTradingValues.frEsCt());
+            if (distance < 1e-6) {
+                return new HashMap<>(convergedShift.scalingCorrection());
+            }
+            double weight = 1 / (distance * distance);
+            convergedShift.scalingCorrection().forEach((zone, correction) -> weightedCorrection.merge(zone, weight * correction, Double::sum));
+            weightSum += weight;
+        }
+        double normalization = weightSum;
+        weightedCorrection.replaceAll((zone, correction) -> correction / normalization);
+        return weightedCorrection;
+    }
+
+    private record ConvergedShift(CounterTradingValues counterTradingValues, Map<String, Double> scalingCorrection) {
+    }
+
 }
@@ -13,73 +13,199 @@ package com.farao_community.farao.swe_csa.app.shift;
 
 import com.powsybl.glsk.commons.ZonalData;
 import com.powsybl.glsk.commons.ZonalDataImpl;
+import com.powsybl.iidm.modification.scalable.ProportionalScalable;
 import com.powsybl.iidm.modification.scalable.Scalable;
+import com.powsybl.iidm.modification.scalable.ScalingParameters;
 import com.powsybl.iidm.network.*;
 import com.powsybl.openrao.commons.EICode;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static com.powsybl.openrao.commons.logs.OpenRaoLoggerProvider.BUSINESS_WARNS;
+
 public final class SweCsaZonalData {
+    private static final String SCALING_PLAN_PROBE_VARIANT_ID = "SCALING PLAN PROBE";
+    private static final double PROBE_LIMIT = 1e6;
+    private static final double FACTOR_PROBE = 1;
+    private static final double PROBE_EPSILON = 1e-6;
 
     private SweCsaZonalData() {
         //private constructor
     }
 
     public static ZonalData<Scalable> getZonalData(Network network, Set<Country> countries) {
-        Map<Country, List<Generator>> generatorsByCountries = getGeneratorsListByCountry(network).entrySet().stream()
+        Map<Country, CountryGenerators> generatorsByCountries = getGeneratorsListByCountry(network).entrySet().stream()
             .filter(entry -> countries.contains(entry.getKey()))
             .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
         return getScalableZonalData(generatorsByCountries);
     }
 
     public static ZonalData<Scalable> getZonalData(Network network) {
-        Map<Country, List<Generator>> generatorsByCountries = getGeneratorsListByCountry(network);
-        return getScalableZonalData(generatorsByCountries);
+        return getScalableZonalData(getGeneratorsListByCountry(network));
     }
 
-    private static ZonalData<Scalable> getScalableZonalData(Map<Country, List<Generator>> generatorsByCountries) {
-        ZonalData<Scalable> zonalData = new ZonalDataImpl<>(new HashMap<>());
-        for (Map.Entry<Country, List<Generator>> entry : generatorsByCountries.entrySet()) {
-            List<Scalable> scalables = new ArrayList<>();
-            List<Double> percentages = new ArrayList<>();
-            Country c = entry.getKey();
-            List<Generator> generators = entry.getValue();
-            //calculate sum P of country's generators
-            double totalCountryP = generators.stream().mapToDouble(SweCsaZonalData::pseudoTargetP).sum();
-            //calculate factor of each generator
-            generators.forEach(generator -> {
-                double generatorPercentage = 100 * pseudoTargetP(generator) / totalCountryP;
-                percentages.add(generatorPercentage);
-                scalables.add(Scalable.onGenerator(generator.getId()));
+    // scaling plans on the network generators equivalent to the scalables of zonal data built here or of proportional GLSK scalables on generators,
+    // zones whose scalable cannot be compiled are left out and scaled with their scalable
+    public static Map<String, CompiledScalingPlan> getScalingPlans(Network network, ZonalData<Scalable> zonalData) {
+        Map<String, CompiledScalingPlan> scalingPlans = new HashMap<>();
+        if (zonalData instanceof GeneratorsZonalData generatorsZonalData) {
+            generatorsZonalData.generatorsByArea.forEach((areaCode, countryGenerators) -> {
+                List<Generator> generators = countryGenerators.generatorIds().stream().map(network::getGenerator).toList();
+                scalingPlans.put(areaCode, new CompiledScalingPlan(generators, countryGenerators.percentages()));
             });
-            Scalable scalable = Scalable.proportional(percentages, scalables);
-            zonalData.addAll(new ZonalDataImpl<>(Collections.singletonMap(new EICode(Country.valueOf(c.toString())).getAreaCode(), scalable)));
+            return scalingPlans;
+        }
+        zonalData.getDataPerZone().forEach((zoneId, scalable) -> {
+            CompiledScalingPlan scalingPlan = scalable instanceof ProportionalScalable ? compileProportionalScalable(network, scalable) : null;
+            if (scalingPlan != null) {
+                scalingPlans.put(zoneId, scalingPlan);
+            } else {
+                BUSINESS_WARNS.warn("GLSK of zone {} could not be compiled into a scaling plan, it is scaled with its scalable", zoneId);
+            }
+        });
+        return scalingPlans;
+    }
+
+    // Factors and limits of a proportional scalable are not exposed, they are read from its scalings on a probe variant:
+    // generator active power limits are widened meanwhile, only the limits of the generator scalables then stop a generator.
+    // Null if the scalable does not scale distinct connected generators within their limits, or its factors cannot be probed
+    private static CompiledScalingPlan compileProportionalScalable(Network network, Scalable scalable) {
+        List<Injection> injections = scalable.filterInjections(network);
+        if (injections.isEmpty() || injections.stream().map(Identifiable::getId).distinct().count() != injections.size()
+            || !injections.stream().allMatch(injection -> injection instanceof Generator generator && generator.getTerminal().isConnected()
+                && generator.getTargetP() >= generator.getMinP() && generator.getTargetP() <= generator.getMaxP())) {
+            return null;
+        }
+        List<Generator> generators = injections.stream().map(Generator.class::cast).toList();
+        double[] initialTargetPs = generators.stream().mapToDouble(Generator::getTargetP).toArray();
+        double[] minPs = generators.stream().mapToDouble(Generator::getMinP).toArray();
+        double[] maxPs = generators.stream().mapToDouble(Generator::getMaxP).toArray();
+        String initialVariantId = network.getVariantManager().getWorkingVariantId();
+        network.getVariantManager().cloneVariant(initialVariantId, SCALING_PLAN_PROBE_VARIANT_ID, true);
+        network.getVariantManager().setWorkingVariant(SCALING_PLAN_PROBE_VARIANT_ID);
+        try {
+            // active power limits are not variant dependent, they are restored below
+            generators.forEach(generator -> generator.setMinP(-PROBE_LIMIT).setMaxP(PROBE_LIMIT));
+            double[] maxTargetPs = probeScalableLimits(network, scalable, generators, initialTargetPs, generators.size() * 2 * PROBE_LIMIT);
+            double[] minTargetPs = probeScalableLimits(network, scalable, generators, initialTargetPs, -generators.size() * 2 * PROBE_LIMIT);
+            List<Double> factors = probeFactors(network, scalable, generators, initialTargetPs, FACTOR_PROBE);
+            if (factors == null) {
+                factors = probeFactors(network, scalable, generators, initialTargetPs, -FACTOR_PROBE);
+            }
+            return factors == null ? null : new CompiledScalingPlan(generators, factors, minTargetPs, maxTargetPs);
+        } finally {
+            for (int i = 0; i < generators.size(); i++) {
+                generators.get(i).setMinP(minPs[i]).setMaxP(maxPs[i]);
+            }
+            network.getVariantManager().setWorkingVariant(initialVariantId);
+            network.getVariantManager().removeVariant(SCALING_PLAN_PROBE_VARIANT_ID);
+        }
+    }
+
+    // target P each generator is stopped at when the scalable is asked more than all generators can take, infinite if only the probe limit stopped it
+    private static double[] probeScalableLimits(Network network, Scalable scalable, List<Generator> generators, double[] initialTargetPs, double asked) {
+        resetTargetPs(generators, initialTargetPs);
+        scalable.scale(network, asked, getProbeScalingParameters(ScalingParameters.Priority.RESPECT_OF_VOLUME_ASKED));
+        double[] limits = new double[generators.size()];
+        for (int i = 0; i < generators.size(); i++) {
+            double targetP = generators.get(i).getTargetP();
+            limits[i] = Math.abs(targetP) < PROBE_LIMIT - PROBE_EPSILON ? targetP : Math.signum(asked) * Double.POSITIVE_INFINITY;
         }
+        return limits;
+    }
 
-        return zonalData;
+    // share of a small variation scaled once on each generator, null if a generator scalable limit cut its share
+    private static List<Double> probeFactors(Network network, Scalable scalable, List<Generator> generators, double[] initialTargetPs, double asked) {
+        resetTargetPs(generators, initialTargetPs);
+        double done = scalable.scale(network, asked, getProbeScalingParameters(ScalingParameters.Priority.ONESHOT));
+        if (Math.abs(done - asked) > PROBE_EPSILON) {
+            return null;
+        }
+        List<Double> factors = new ArrayList<>();
+        for (int i = 0; i < generators.size(); i++) {
+            factors.add(100 * (generators.get(i).getTargetP() - initialTargetPs[i]) / asked);
+        }
+        return factors;
     }
 
-    private static Map<Country, List<Generator>> getGeneratorsListByCountry(Network network) {
-        return network.getGeneratorStream()
-            .filter(SweCsaZonalData::isCorrect)
-            .collect(Collectors.toMap(generator -> generator.getTerminal().getVoltageLevel().getSubstation().map(Substation::getNullableCountry).orElse(null),
-                List::of,
-                (list1, list2) -> {
-                    List<Generator> list3 = new ArrayList<>(list1);
-                    list3.addAll(list2);
-                    return list3;
-                }));
+    private static void resetTargetPs(List<Generator> generators, double[] targetPs) {
+        for (int i = 0; i < generators.size(); i++) {
+            generators.get(i).setTargetP(targetPs[i]);
+        }
+    }
+
+    private static ScalingParameters getProbeScalingParameters(ScalingParameters.Priority priority) {
+        ScalingParameters scalingParameters = new ScalingParameters();
+        scalingParameters.setPriority(priority);
+        scalingParameters.setReconnect(false);
+        return scalingParameters;
+    }
+
+    private static ZonalData<Scalable> getScalableZonalData(Map<Country, CountryGenerators> generatorsByCountries) {
+        Map<String, Scalable> scalablesByArea = new HashMap<>();
+        Map<String, CountryGenerators> generatorsByArea = new HashMap<>();
+        for (Map.Entry<Country, CountryGenerators> entry : generatorsByCountries.entrySet()) {
+            List<Scalable> scalables = entry.getValue().generatorIds().stream().map(Scalable::onGenerator).toList();
+            String areaCode = new EICode(entry.getKey()).getAreaCode();
+            scalablesByArea.put(areaCode, Scalable.proportional(entry.getValue().percentages(), scalables));
+            generatorsByArea.put(areaCode, entry.getValue());
+        }
+        return new GeneratorsZonalData(scalablesByArea, generatorsByArea);
+    }
+
+    // grouped in a single pass on generators
+    private static Map<Country, CountryGenerators> getGeneratorsListByCountry(Network network) {
+        Set<String> mainSynchronousComponentBusIds = new HashSet<>();
+        network.getBusView().getBuses().forEach(bus -> {
+            if (bus.isInMainSynchronousComponent()) {
+                mainSynchronousComponentBusIds.add(bus.getId());
+            }
+        });
+        Map<Country, List<String>> generatorIdsByCountry = new EnumMap<>(Country.class);
+        Map<Country, List<Double>> targetPsByCountry = new EnumMap<>(Country.class);
+        Map<Country, Double> totalTargetPByCountry = new EnumMap<>(Country.class);
+        network.getGeneratorStream().forEach(generator -> {
+            Country country = generator.getTerminal().getVoltageLevel().getSubstation().map(Substation::getNullableCountry).orElse(null);
+            if (country != null && isCorrect(generator, mainSynchronousComponentBusIds)) {
+                double pseudoTargetP = pseudoTargetP(generator);
+                generatorIdsByCountry.computeIfAbsent(country, key -> new ArrayList<>()).add(generator.getId());
+                targetPsByCountry.computeIfAbsent(country, key -> new ArrayList<>()).add(pseudoTargetP);
+                totalTargetPByCountry.merge(country, pseudoTargetP, Double::sum);
+            }
+        });
+        Map<Country, CountryGenerators> generatorsByCountry = new EnumMap<>(Country.class);
+        generatorIdsByCountry.forEach((country, generatorIds) -> {
+            //calculate factor of each generator from sum P of country's generators
+            double totalCountryP = totalTargetPByCountry.get(country);
+            List<Double> percentages = targetPsByCountry.get(country).stream().map(targetP -> 100 * targetP / totalCountryP).toList();
+            generatorsByCountry.put(country, new CountryGenerators(generatorIds, percentages));
+        });
+        return generatorsByCountry;
     }
 
     private static double pseudoTargetP(Generator generator) {
         return Math.max(1e-5, Math.abs(generator.getTargetP()));
     }
 
-    private static boolean isCorrect(Injection<?> injection) {
-        return injection != null &&
-            injection.getTerminal().isConnected() &&
-            injection.getTerminal().getBusView().getBus() != null &&
-            injection.getTerminal().getBusView().getBus().isInMainSynchronousComponent();
+    private static boolean isCorrect(Injection<?> injection, Set<String> mainSynchronousComponentBusIds) {
+        if (injection == null || !injection.getTerminal().isConnected()) {
+            return false;
+        }
+        Bus bus = injection.getTerminal().getBusView().getBus();
+        return bus != null && mainSynchronousComponentBusIds.contains(bus.getId());
+    }
+
+    private record CountryGenerators(List<String> generatorIds, List<Double> percentages) {
+    }
+
+    // keeps the generators of each area so that scaling plans are only compiled on request
+    private static final class GeneratorsZonalData extends ZonalDataImpl<Scalable> {
+        private final Map<String, CountryGenerators> generatorsByArea;
+
+        private GeneratorsZonalData(Map<String, Scalable> scalablesByArea, Map<String, CountryGenerators> generatorsByArea) {
+            super(scalablesByArea);
+            this.generatorsByArea = generatorsByArea;
+        }
     }
 }
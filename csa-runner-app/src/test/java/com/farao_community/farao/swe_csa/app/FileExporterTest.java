@@ -0,0 +1,162 @@
+package com.farao_community.farao.swe_csa.app;
+
+import com.farao_community.farao.swe_csa.api.exception.CsaInternalException;
+import com.farao_community.farao.swe_csa.app.s3.S3ArtifactsAdapter;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.serde.ImportOptions;
+import com.powsybl.iidm.serde.NetworkSerDe;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+class FileExporterTest {
+
+    @Test
+    void saveNetworkInArtifactStreamsNetwork() {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        S3ArtifactsAdapter s3ArtifactsAdapter = Mockito.mock(S3ArtifactsAdapter.class);
+        AtomicReference<byte[]> uploadedBytes = new AtomicReference<>();
+        Mockito.doAnswer(invocation -> {
+            uploadedBytes.set(invocation.<InputStream>getArgument(1).readAllBytes());
+            return null;
+        }).when(s3ArtifactsAdapter).uploadFile(eq("network.xiidm"), any());
+        Mockito.when(s3ArtifactsAdapter.generatePreSignedUrl("network.xiidm")).thenReturn("network-url");
+
+        assertEquals("network-url", new FileExporter(s3ArtifactsAdapter).saveNetworkInArtifact("taskId", network, "network.xiidm"));
+        Network uploadedNetwork = NetworkSerDe.read(new ByteArrayInputStream(uploadedBytes.get()));
+        assertEquals(network.getId(), uploadedNetwork.getId());
+        assertEquals(network.getGeneratorCount(), uploadedNetwork.getGeneratorCount());
+    }
+
+    @Test
+    void saveNetworkInArtifactWithCompressedBinaryFormat() throws Exception {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        S3ArtifactsAdapter s3ArtifactsAdapter = Mockito.mock(S3ArtifactsAdapter.class);
+        AtomicReference<byte[]> uploadedBytes = new AtomicReference<>();
+        Mockito.doAnswer(invocation -> {
+            uploadedBytes.set(invocation.<InputStream>getArgument(1).readAllBytes());
+            return null;
+        }).when(s3ArtifactsAdapter).uploadFile(eq("network.biidm.gz"), any());
+        Mockito.when(s3ArtifactsAdapter.generatePreSignedUrl("network.biidm.gz")).thenReturn("network-url");
+        FileExporter fileExporter = new FileExporter(s3ArtifactsAdapter);
+        assertEquals("xiidm", fileExporter.getNetworkArtifactExtension());
+        fileExporter.setNetworkArtifactFormat(NetworkArtifactFormat.BIIDM);
+        fileExporter.setNetworkArtifactGzip(true);
+        assertEquals("biidm.gz", fileExporter.getNetworkArtifactExtension());
+
+        assertEquals("network-url", fileExporter.saveNetworkInArtifact("taskId", network, "network." + fileExporter.getNetworkArtifactExtension()));
+        try (InputStream networkInputStream = new GZIPInputStream(new ByteArrayInputStream(uploadedBytes.get()))) {
+            Network uploadedNetwork = NetworkSerDe.read(networkInputStream, new ImportOptions().setFormat(NetworkArtifactFormat.BIIDM.getDataFormat()), null);
+            assertEquals(network.getId(), uploadedNetwork.getId());
+            assertEquals(network.getGeneratorCount(), uploadedNetwork.getGeneratorCount());
+        }
+    }
+
+    @Test
+    void saveNetworkInArtifactFailsWhenUploadFails() {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        S3ArtifactsAdapter s3ArtifactsAdapter = Mockito.mock(S3ArtifactsAdapter.class);
+        Mockito.doThrow(new CsaInternalException("taskId", "upload failed")).when(s3ArtifactsAdapter).uploadFile(eq("network.xiidm"), any());
+
+        FileExporter fileExporter = new FileExporter(s3ArtifactsAdapter);
+        CsaInternalException exception = assertThrows(CsaInternalException.class, () -> fileExporter.saveNetworkInArtifact("taskId", network, "network.xiidm"));
+        // writer fails on the pipe closed by the upload, upload failure is reported
+        assertEquals("upload failed", exception.getCause().getMessage());
+        Mockito.verify(s3ArtifactsAdapter, Mockito.never()).generatePreSignedUrl(any());
+    }
+
+    @Test
+    void saveNetworkInArtifactReusesUploadOfSameNetworkKey() {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        S3ArtifactsAdapter s3ArtifactsAdapter = Mockito.mock(S3ArtifactsAdapter.class);
+        Mockito.doAnswer(invocation -> invocation.<InputStream>getArgument(1).readAllBytes()).when(s3ArtifactsAdapter).uploadFile(any(), any());
+        Mockito.when(s3ArtifactsAdapter.generatePreSignedUrl(any())).thenAnswer(invocation -> invocation.getArgument(0) + "-url");
+        FileExporter fileExporter = new FileExporter(s3ArtifactsAdapter);
+        fileExporter.setNetworkArtifactDeduplication(true);
+
+        assertEquals("step-1.xiidm-url", fileExporter.saveNetworkInArtifact("taskId", network, "step-1.xiidm", "key-1"));
+        assertEquals("step-1.xiidm-url", fileExporter.saveNetworkInArtifact("taskId", network, "step-2.xiidm", "key-1"));
+        Mockito.verify(s3ArtifactsAdapter, Mockito.times(1)).uploadFile(any(), any());
+
+        assertEquals("step-3.xiidm-url", fileExporter.saveNetworkInArtifact("taskId", network, "step-3.xiidm", "key-2"));
+        assertEquals("step-4.xiidm-url", fileExporter.saveNetworkInArtifact("otherTaskId", network, "step-4.xiidm", "key-1"));
+        assertEquals("step-5.xiidm-url", fileExporter.saveNetworkInArtifact("taskId", network, "step-5.xiidm"));
+        fileExporter.clearNetworkArtifactIndex("taskId");
+        assertEquals("step-6.xiidm-url", fileExporter.saveNetworkInArtifact("taskId", network, "step-6.xiidm", "key-1"));
+        Mockito.verify(s3ArtifactsAdapter, Mockito.times(5)).uploadFile(any(), any());
+    }
+
+    @Test
+    void saveNetworkInArtifactUploadsOnceForConcurrentCallsOfSameNetworkKey() throws Exception {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        S3ArtifactsAdapter s3ArtifactsAdapter = Mockito.mock(S3ArtifactsAdapter.class);
+        CountDownLatch uploadStarted = new CountDownLatch(1);
+        CountDownLatch secondCallStarted = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            uploadStarted.countDown();
+            // upload lasts until the second call asked for the same key
+            assertTrue(secondCallStarted.await(10, TimeUnit.SECONDS));
+            return invocation.<InputStream>getArgument(1).readAllBytes();
+        }).when(s3ArtifactsAdapter).uploadFile(any(), any());
+        Mockito.when(s3ArtifactsAdapter.generatePreSignedUrl(any())).thenAnswer(invocation -> invocation.getArgument(0) + "-url");
+        FileExporter fileExporter = new FileExporter(s3ArtifactsAdapter);
+        fileExporter.setNetworkArtifactDeduplication(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> firstCall = executor.submit(() -> fileExporter.saveNetworkInArtifact("taskId", network, "step-1.xiidm", "key-1"));
+            assertTrue(uploadStarted.await(10, TimeUnit.SECONDS));
+            Future<String> secondCall = executor.submit(() -> {
+                secondCallStarted.countDown();
+                return fileExporter.saveNetworkInArtifact("taskId", network, "step-2.xiidm", "key-1");
+            });
+            assertEquals("step-1.xiidm-url", firstCall.get(10, TimeUnit.SECONDS));
+            assertEquals("step-1.xiidm-url", secondCall.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        Mockito.verify(s3ArtifactsAdapter, Mockito.times(1)).uploadFile(any(), any());
+    }
+
+    @Test
+    void saveNetworkInArtifactUploadsAgainAfterFailedUploadOfSameNetworkKey() {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        S3ArtifactsAdapter s3ArtifactsAdapter = Mockito.mock(S3ArtifactsAdapter.class);
+        Mockito.doThrow(new CsaInternalException("taskId", "upload failed")).when(s3ArtifactsAdapter).uploadFile(eq("step-1.xiidm"), any());
+        Mockito.doAnswer(invocation -> invocation.<InputStream>getArgument(1).readAllBytes()).when(s3ArtifactsAdapter).uploadFile(eq("step-2.xiidm"), any());
+        Mockito.when(s3ArtifactsAdapter.generatePreSignedUrl(any())).thenAnswer(invocation -> invocation.getArgument(0) + "-url");
+        FileExporter fileExporter = new FileExporter(s3ArtifactsAdapter);
+        fileExporter.setNetworkArtifactDeduplication(true);
+
+        assertThrows(CsaInternalException.class, () -> fileExporter.saveNetworkInArtifact("taskId", network, "step-1.xiidm", "key-1"));
+        assertEquals("step-2.xiidm-url", fileExporter.saveNetworkInArtifact("taskId", network, "step-2.xiidm", "key-1"));
+    }
+
+    @Test
+    void getReusableNetworkUrlOnlyForIidmNetworks() {
+        FileExporter fileExporter = new FileExporter(Mockito.mock(S3ArtifactsAdapter.class));
+        String iidmNetworkUrl = "https://minio/gridcapa/network.xiidm?X-Amz-Signature=signature";
+        assertTrue(fileExporter.getReusableNetworkUrl(iidmNetworkUrl).isEmpty());
+
+        fileExporter.setNetworkArtifactDeduplication(true);
+        assertEquals(Optional.of(iidmNetworkUrl), fileExporter.getReusableNetworkUrl(iidmNetworkUrl));
+        assertTrue(fileExporter.getReusableNetworkUrl("https://minio/gridcapa/network.zip?X-Amz-Signature=signature").isEmpty());
+        assertTrue(fileExporter.getReusableNetworkUrl(null).isEmpty());
+    }
+}
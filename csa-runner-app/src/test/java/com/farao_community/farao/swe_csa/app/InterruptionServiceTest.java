@@ -52,6 +52,32 @@ class InterruptionServiceTest {
         assertTrue(tasksToInterrupt.contains(taskId));
     }
 
+    @Test
+    void testInterruptionStopsRegisteredRaoRuns() {
+        String taskId = "task1";
+        byte[] interruptionRequestBytes = ("{\"data\": {\"type\": \"csa-interruption-request\", \"id\": \"" + taskId + "\"}}").getBytes(StandardCharsets.UTF_8);
+        interruptionService.registerRaoRun(taskId, "task1-0");
+        interruptionService.registerRaoRun(taskId, "task1-1");
+        interruptionService.unregisterRaoRun(taskId, "task1-0");
+
+        interruptionService.interruption(interruptionRequestBytes);
+
+        verify(streamBridge).send("stop-rao-runner", taskId);
+        verify(streamBridge).send("stop-rao-runner", "task1-1");
+        verify(streamBridge, never()).send("stop-rao-runner", "task1-0");
+    }
+
+    @Test
+    void testStopRaoRun() {
+        interruptionService.registerRaoRun("task1", "task1-0");
+
+        interruptionService.stopRaoRun("task1", "task1-0");
+
+        verify(streamBridge).send("stop-rao-runner", "task1-0");
+        interruptionService.interruption(("{\"data\": {\"type\": \"csa-interruption-request\", \"id\": \"task1\"}}").getBytes(StandardCharsets.UTF_8));
+        verify(streamBridge, times(1)).send("stop-rao-runner", "task1-0");
+    }
+
     @Test
     void testGetTasksToInterrupt() {
         String taskId1 = "task1";
@@ -24,6 +24,9 @@ import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -56,9 +59,12 @@ class RequestServiceTest {
         when(s3ArtifactsAdapter.generatePreSignedUrl("frEsResultsPath")).thenReturn("https://cds/frEsResultsPath.signed.url");
         CsaRequest csaRequest = new CsaRequest("id", "2023-08-08T15:30:00Z", "https://cds/gridModelUri.signed.url", "https://cds/glskUri.signed.url", "https://cds/ptEsCracFileUri.signed.url", "https://cds/frEsCracFileUri.signed.url");
         FinalResult finalResult = new FinalResult(Pair.of(null, Status.FINISHED_SECURE), Pair.of(null, Status.FINISHED_SECURE));
-        when(dichotomyRunner.runDichotomy(csaRequest, "ptEsResultsPath", "frEsResultsPath")).thenReturn(finalResult);
+        when(dichotomyRunner.runDichotomy(eq(csaRequest), eq("ptEsResultsPath"), eq("frEsResultsPath"), any(Instant.class))).thenReturn(finalResult);
 
+        Instant beforeReception = Instant.now();
         byte[] resultBytes = requestService.launchCsaRequest(requestBytes);
+        // time budget starts when the request is received
+        verify(dichotomyRunner).runDichotomy(eq(csaRequest), eq("ptEsResultsPath"), eq("frEsResultsPath"), argThat(instant -> !instant.isBefore(beforeReception)));
         CsaResponse csaResponse = jsonApiConverter.fromJsonMessage(resultBytes, CsaResponse.class);
         CsaResponse expectedCsaResponse = new CsaResponse("id", Status.FINISHED_SECURE.toString(), "https://cds/ptEsResultsPath.signed.url", Status.FINISHED_SECURE.toString(), "https://cds/frEsResultsPath.signed.url");
         assertEquals(expectedCsaResponse.getId(), csaResponse.getId());
@@ -74,7 +80,7 @@ class RequestServiceTest {
         byte[] requestBytes = Objects.requireNonNull(getClass().getResourceAsStream("/csaRequestMessage.json")).readAllBytes();
 
         when(streamBridge.send(any(), any())).thenReturn(true);
-        when(dichotomyRunner.runDichotomy(any(), any(), any())).thenThrow(new RuntimeException("Invalid data exception"));
+        when(dichotomyRunner.runDichotomy(any(), any(), any(), any())).thenThrow(new RuntimeException("Invalid data exception"));
         when(s3ArtifactsAdapter.generatePreSignedUrl("https://cds/resultsUri.signed.url")).thenReturn("https://cds/resultsUri.signed.url");
 
         assertEquals("{\"errors\":[{\"id\":\"id\",\"links\":null,\"status\":\"400\",\"code\":\"400-InvalidDataException\",\"title\":\"Exception happened\",\"detail\":\"Exception happened; nested exception is java.lang.RuntimeException: Invalid data exception\",\"source\":null,\"meta\":null}]}",
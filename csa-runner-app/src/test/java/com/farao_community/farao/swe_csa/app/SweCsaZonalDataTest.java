@@ -3,6 +3,7 @@ package com.farao_community.farao.swe_csa.app;
 import com.farao_community.farao.swe_csa.app.shift.SweCsaZonalData;
 import com.powsybl.glsk.commons.ZonalData;
 import com.powsybl.iidm.modification.scalable.Scalable;
+import com.powsybl.iidm.network.Country;
 import com.powsybl.iidm.network.Injection;
 import com.powsybl.iidm.network.Network;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -40,5 +42,16 @@ class SweCsaZonalDataTest {
         List<Injection> injectionListNl = zonalData.getData("10YNL----------L").filterInjections(network);
         assertEquals(3, injectionListNl.size());
     }
+
+    @Test
+    void zonalDataForCountriesTest() {
+        Network network = fileImporter.importNetwork("taskId", Objects.requireNonNull(getClass().getResource("/rao_inputs/network.xiidm")).toString());
+        ZonalData<Scalable> zonalData = SweCsaZonalData.getZonalData(network);
+        ZonalData<Scalable> frZonalData = SweCsaZonalData.getZonalData(network, Set.of(Country.FR));
+        assertEquals(Set.of("10YFR-RTE------C"), frZonalData.getDataPerZone().keySet());
+        assertEquals(zonalData.getData("10YFR-RTE------C").filterInjections(network).stream().map(Injection::getId).toList(),
+            frZonalData.getData("10YFR-RTE------C").filterInjections(network).stream().map(Injection::getId).toList());
+        assertEquals(5, SweCsaZonalData.getScalingPlans(network, frZonalData).get("10YFR-RTE------C").size());
+    }
 }
 
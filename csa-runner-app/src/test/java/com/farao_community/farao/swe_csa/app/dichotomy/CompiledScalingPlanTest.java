@@ -0,0 +1,115 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.farao_community.farao.swe_csa.app.shift.CompiledScalingPlan;
+import com.farao_community.farao.swe_csa.app.shift.ShiftDispatcher;
+import com.farao_community.farao.swe_csa.app.shift.SweCsaZonalData;
+import com.powsybl.glsk.commons.ZonalData;
+import com.powsybl.glsk.commons.ZonalDataImpl;
+import com.powsybl.iidm.modification.scalable.Scalable;
+import com.powsybl.iidm.modification.scalable.ScalingParameters;
+import com.powsybl.iidm.network.Generator;
+import com.powsybl.iidm.network.Network;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledScalingPlanTest {
+
+    @Test
+    void testScaleAsProportionalScalable() {
+        Network scalableNetwork = readNetwork();
+        Network compiledNetwork = readNetwork();
+        ScalingParameters scalingParameters = new ScalingParameters();
+        scalingParameters.setPriority(ScalingParameters.Priority.RESPECT_OF_VOLUME_ASKED);
+        scalingParameters.setReconnect(true);
+        ZonalData<Scalable> scalableZonalData = SweCsaZonalData.getZonalData(scalableNetwork);
+        Map<String, CompiledScalingPlan> scalingPlans = SweCsaZonalData.getScalingPlans(compiledNetwork, SweCsaZonalData.getZonalData(compiledNetwork));
+
+        for (Map.Entry<String, Double> scaling : Map.of(ShiftDispatcher.EI_CODE_FR, -100., ShiftDispatcher.EI_CODE_ES, 100.).entrySet()) {
+            double scalableDone = scalableZonalData.getData(scaling.getKey()).scale(scalableNetwork, scaling.getValue(), scalingParameters);
+            double compiledDone = scalingPlans.get(scaling.getKey()).scale(scaling.getValue(), true);
+            assertEquals(scalableDone, compiledDone, 1e-3);
+        }
+        for (Generator generator : scalableNetwork.getGenerators()) {
+            assertEquals(generator.getTargetP(), compiledNetwork.getGenerator(generator.getId()).getTargetP(), 1e-3);
+        }
+    }
+
+    @Test
+    void testScaleRedistributesOnSaturatedGenerators() {
+        Network network = readNetwork();
+        Map<String, CompiledScalingPlan> scalingPlans = SweCsaZonalData.getScalingPlans(network, SweCsaZonalData.getZonalData(network));
+        CompiledScalingPlan frScalingPlan = scalingPlans.get(ShiftDispatcher.EI_CODE_FR);
+        assertTrue(frScalingPlan.size() > 1);
+        double upwardHeadroom = network.getGeneratorStream()
+            .filter(generator -> generator.getId().startsWith("FFR"))
+            .mapToDouble(generator -> generator.getMaxP() - generator.getTargetP())
+            .sum();
+
+        assertEquals(upwardHeadroom, frScalingPlan.scale(upwardHeadroom + 1000, true), 1e-3);
+        network.getGeneratorStream()
+            .filter(generator -> generator.getId().startsWith("FFR"))
+            .forEach(generator -> assertEquals(generator.getMaxP(), generator.getTargetP(), 1e-3));
+    }
+
+    @Test
+    void testScaleAsProportionalGlskScalable() {
+        Network scalableNetwork = readNetwork();
+        Network compiledNetwork = readNetwork();
+        Scalable frScalable = buildFrGlskScalable();
+        Map<String, CompiledScalingPlan> scalingPlans = SweCsaZonalData.getScalingPlans(compiledNetwork, new ZonalDataImpl<>(Map.of(ShiftDispatcher.EI_CODE_FR, buildFrGlskScalable())));
+        CompiledScalingPlan frScalingPlan = scalingPlans.get(ShiftDispatcher.EI_CODE_FR);
+        assertEquals(5, frScalingPlan.size());
+        // probing the scalable leaves the network unchanged
+        assertEquals(1, compiledNetwork.getVariantManager().getVariantIds().size());
+        assertEquals(9000, compiledNetwork.getGenerator("FFR1AA11_generator").getMaxP(), 1e-6);
+
+        // first scaling saturates a generator scalable limit, the second one every generator on its scalable or generator limit
+        assertScaleAsScalable(frScalable, scalableNetwork, frScalingPlan, compiledNetwork, 1000);
+        assertEquals(2100, compiledNetwork.getGenerator("FFR1AA11_generator").getTargetP(), 1e-3);
+        assertScaleAsScalable(frScalable, scalableNetwork, frScalingPlan, compiledNetwork, -40000);
+        assertEquals(-9000, compiledNetwork.getGenerator("FFR1AA11_generator").getTargetP(), 1e-3);
+        assertEquals(1900, compiledNetwork.getGenerator("FFR2AA11_generator").getTargetP(), 1e-3);
+        assertEquals(0, compiledNetwork.getGenerator("FFR4AA11_generator").getTargetP(), 1e-3);
+    }
+
+    @Test
+    void testNoScalingPlanForScalableOnLoads() {
+        Network network = readNetwork();
+        ZonalData<Scalable> zonalData = new ZonalDataImpl<>(Map.of(
+            ShiftDispatcher.EI_CODE_FR, buildFrGlskScalable(),
+            ShiftDispatcher.EI_CODE_ES, Scalable.proportional(List.of(50., 50.), List.of(Scalable.onGenerator("EES1AA11_generator"), Scalable.onLoad("EES1AA11_load")))));
+        // zone that cannot be compiled is scaled with its scalable
+        assertEquals(Set.of(ShiftDispatcher.EI_CODE_FR), SweCsaZonalData.getScalingPlans(network, zonalData).keySet());
+        assertTrue(SweCsaZonalData.getScalingPlans(network, new ZonalDataImpl<>(Map.of())).isEmpty());
+    }
+
+    // proportional GLSK with generator scalable limits, as GLSK documents build them
+    private static Scalable buildFrGlskScalable() {
+        return Scalable.proportional(List.of(30., 30., 20., 10., 10.), List.of(
+            Scalable.onGenerator("FFR1AA11_generator", -Double.MAX_VALUE, 2100),
+            Scalable.onGenerator("FFR2AA11_generator", 1900, Double.MAX_VALUE),
+            Scalable.onGenerator("FFR3AA11_generator"),
+            Scalable.onGenerator("FFR4AA11_generator", 0, 1200),
+            Scalable.onGenerator("FFR5AA11_generator")));
+    }
+
+    private static void assertScaleAsScalable(Scalable scalable, Network scalableNetwork, CompiledScalingPlan scalingPlan, Network compiledNetwork, double asked) {
+        ScalingParameters scalingParameters = new ScalingParameters();
+        scalingParameters.setPriority(ScalingParameters.Priority.RESPECT_OF_VOLUME_ASKED);
+        scalingParameters.setReconnect(true);
+        assertEquals(scalable.scale(scalableNetwork, asked, scalingParameters), scalingPlan.scale(asked, true), 1e-3);
+        for (Generator generator : scalableNetwork.getGenerators()) {
+            assertEquals(generator.getTargetP(), compiledNetwork.getGenerator(generator.getId()).getTargetP(), 1e-3);
+        }
+    }
+
+    private Network readNetwork() {
+        return Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.farao_community.farao.swe_csa.app.s3.S3ArtifactsAdapter;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CounterTradingHistoryStoreTest {
+
+    private final S3ArtifactsAdapter s3ArtifactsAdapter = Mockito.mock(S3ArtifactsAdapter.class);
+    private final CounterTradingHistoryStore counterTradingHistoryStore = new CounterTradingHistoryStore(s3ArtifactsAdapter, LoggerFactory.getLogger(CounterTradingHistoryStoreTest.class));
+
+    @Test
+    void testSaveThenFindNextHour() throws IOException {
+        CounterTradingHistory counterTradingHistory = new CounterTradingHistory(400, 700, 400, 350, 700, 650);
+        counterTradingHistoryStore.save("2023-09-13T10:30:00+01:00", counterTradingHistory);
+
+        ArgumentCaptor<InputStream> contentCaptor = ArgumentCaptor.forClass(InputStream.class);
+        Mockito.verify(s3ArtifactsAdapter).uploadFile(Mockito.eq("history/counter-trading/2023/9/13/9_30.json"), contentCaptor.capture());
+        byte[] content = contentCaptor.getValue().readAllBytes();
+
+        Mockito.when(s3ArtifactsAdapter.readFileIfExists(Mockito.anyString())).thenReturn(Optional.empty());
+        Mockito.when(s3ArtifactsAdapter.readFileIfExists("history/counter-trading/2023/9/13/9_30.json")).thenReturn(Optional.of(content));
+        assertEquals(Optional.of(counterTradingHistory), counterTradingHistoryStore.find("2023-09-13T10:30:00Z"));
+        assertTrue(counterTradingHistoryStore.find("2023-09-13T11:30:00Z").isEmpty());
+    }
+
+    @Test
+    void testUnreadableHistoryIsIgnored() {
+        Mockito.when(s3ArtifactsAdapter.readFileIfExists(Mockito.anyString())).thenReturn(Optional.of("not json".getBytes()));
+        assertTrue(counterTradingHistoryStore.find("2023-09-13T10:30:00Z").isEmpty());
+    }
+
+    @Test
+    void testGetHistoryPath() {
+        assertEquals("history/counter-trading/2023/9/13/9_30.json", CounterTradingHistoryStore.getHistoryPath(OffsetDateTime.parse("2023-09-13T09:30:00Z")));
+    }
+}
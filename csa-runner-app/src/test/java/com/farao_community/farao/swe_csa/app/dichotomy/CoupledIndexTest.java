@@ -0,0 +1,67 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoupledIndexTest {
+
+    private CoupledIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CoupledIndex(0, 0, 10, 10, new BisectionStrategy());
+        addStep(0, 0, false, false);
+        addStep(1000, 1000, true, true);
+    }
+
+    private ParallelDichotomiesResult addStep(double ptEsCt, double frEsCt, boolean ptEsSecure, boolean frEsSecure) {
+        CounterTradingValues counterTradingValues = new CounterTradingValues(ptEsCt, frEsCt);
+        DichotomyStepResult ptEsResult = DichotomyStepResult.fromNetworkValidationResult(null, ptEsSecure, null, counterTradingValues);
+        DichotomyStepResult frEsResult = DichotomyStepResult.fromNetworkValidationResult(null, frEsSecure, null, counterTradingValues);
+        index.addPtEsDichotomyStepResult(ptEsCt, ptEsResult);
+        index.addFrEsDichotomyStepResult(frEsCt, frEsResult);
+        return new ParallelDichotomiesResult(ptEsResult, frEsResult, counterTradingValues);
+    }
+
+    @Test
+    void testNextValuesWithoutSecurePair() {
+        assertEquals(new CounterTradingValues(500, 500), index.nextValues());
+    }
+
+    @Test
+    void testNextValuesSkipsPairKnownUnsecure() {
+        index.setBestValidDichotomyStepResult(new ParallelDichotomiesResult(null, null, new CounterTradingValues(1000, 1000)));
+        assertEquals(new CounterTradingValues(500, 500), index.nextValues());
+
+        addStep(500, 500, true, false);
+        // FR-ES is unsecure at (500, 500) so also at (250, 500), PT-ES alone moves from the best secure pair
+        assertEquals(new CounterTradingValues(250, 1000), index.nextValues());
+
+        index.setBestValidDichotomyStepResult(addStep(250, 1000, true, true));
+        assertTrue(index.exitConditionIsNotMetForPtEs());
+        assertTrue(index.exitConditionIsNotMetForFrEs());
+        assertEquals(new CounterTradingValues(125, 750), index.nextValues());
+    }
+
+    @Test
+    void testBracketsUpperValuesNotEvaluatedTogether() {
+        assertNull(index.getBracketsUpperValues());
+
+        index.setBestValidDichotomyStepResult(addStep(500, 500, true, true));
+        addStep(400, 300, true, false);
+        addStep(300, 400, false, true);
+        // each border is secure at 400 with less CT on the other border than the best secure pair
+        assertEquals(new CounterTradingValues(400, 400), index.getBracketsUpperValues());
+        assertFalse(index.isEvaluated(new CounterTradingValues(400, 400)));
+    }
+
+    @Test
+    void testSpeculativeNextValuesMatchNextValues() {
+        IndexTest.assertSpeculativeNextValuesMatchNextValues(new CoupledIndex(0, 0, 10, 10, new BisectionStrategy()));
+    }
+}
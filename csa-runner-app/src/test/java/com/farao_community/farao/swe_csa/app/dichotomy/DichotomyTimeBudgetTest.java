@@ -0,0 +1,55 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DichotomyTimeBudgetTest {
+
+    private static final Instant START = Instant.parse("2023-09-13T09:30:00Z");
+
+    @Test
+    void testPredictionFromRecordedSteps() {
+        Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.instant()).thenReturn(START);
+        DichotomyTimeBudget timeBudget = new DichotomyTimeBudget(clock, Duration.ofMinutes(60), 1.5);
+        assertTrue(timeBudget.hasTimeForNextStep());
+        assertEquals(Duration.ZERO, timeBudget.getPredictedStepDuration());
+
+        Instant stepStart = timeBudget.startStep();
+        Mockito.when(clock.instant()).thenReturn(START.plus(Duration.ofMinutes(10)));
+        timeBudget.endStep(stepStart);
+        stepStart = timeBudget.startStep();
+        Mockito.when(clock.instant()).thenReturn(START.plus(Duration.ofMinutes(40)));
+        timeBudget.endStep(stepStart);
+
+        // average step lasts 20 min, 30 min predicted with safety factor
+        assertEquals(Duration.ofMinutes(30), timeBudget.getPredictedStepDuration());
+        assertEquals(Duration.ofMinutes(20), timeBudget.getRemainingTime());
+        assertFalse(timeBudget.hasTimeForNextStep());
+    }
+
+    @Test
+    void testBudgetCountedFromStart() {
+        Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.instant()).thenReturn(START.plus(Duration.ofMinutes(50)));
+        // inputs import already used 50 min of the budget
+        DichotomyTimeBudget timeBudget = new DichotomyTimeBudget(clock, START, Duration.ofMinutes(60), 1.5);
+        assertEquals(Duration.ofMinutes(10), timeBudget.getRemainingTime());
+    }
+
+    @Test
+    void testUnboundedBudget() {
+        DichotomyTimeBudget timeBudget = DichotomyTimeBudget.unbounded();
+        timeBudget.endStep(Instant.EPOCH);
+        assertFalse(timeBudget.isBounded());
+        assertTrue(timeBudget.hasTimeForNextStep());
+    }
+}
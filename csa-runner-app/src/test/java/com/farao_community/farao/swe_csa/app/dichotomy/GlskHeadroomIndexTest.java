@@ -0,0 +1,63 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.farao_community.farao.dichotomy.api.exceptions.ShiftingException;
+import com.farao_community.farao.swe_csa.app.shift.GlskHeadroomIndex;
+import com.farao_community.farao.swe_csa.app.shift.ShiftDispatcher;
+import com.farao_community.farao.swe_csa.app.shift.SweCsaZonalData;
+import com.powsybl.iidm.network.Network;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GlskHeadroomIndexTest {
+
+    @Test
+    void testComputeHeadroom() throws ShiftingException {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        String initialVariantId = network.getVariantManager().getWorkingVariantId();
+
+        GlskHeadroomIndex glskHeadroomIndex = GlskHeadroomIndex.compute(network, SweCsaZonalData.getZonalData(network));
+        assertEquals(initialVariantId, network.getVariantManager().getWorkingVariantId());
+        assertEquals(1, network.getVariantManager().getVariantIds().size());
+
+        double frUpwardHeadroom = glskHeadroomIndex.getUpwardHeadroom(ShiftDispatcher.EI_CODE_FR);
+        double frDownwardHeadroom = glskHeadroomIndex.getDownwardHeadroom(ShiftDispatcher.EI_CODE_FR);
+        assertTrue(frUpwardHeadroom >= 0);
+        assertTrue(frDownwardHeadroom >= 0);
+        assertTrue(glskHeadroomIndex.getMaxCounterTrading(ShiftDispatcher.EI_CODE_FR, 1.) <= frDownwardHeadroom);
+        assertTrue(glskHeadroomIndex.getMaxCounterTrading(ShiftDispatcher.EI_CODE_FR, -1.) <= frUpwardHeadroom);
+
+        assertEquals(List.of(), glskHeadroomIndex.getLimitingZones(Map.of(ShiftDispatcher.EI_CODE_FR, frUpwardHeadroom), 1));
+        assertEquals(List.of(ShiftDispatcher.EI_CODE_FR), glskHeadroomIndex.getLimitingZones(Map.of(ShiftDispatcher.EI_CODE_FR, -(frDownwardHeadroom * 1.2 + 10)), 1));
+    }
+
+    @Test
+    void testMaxCounterTradingValuesShareSpanishHeadroom() {
+        GlskHeadroomIndex glskHeadroomIndex = new GlskHeadroomIndex(
+            Map.of(ShiftDispatcher.EI_CODE_ES, 1200., ShiftDispatcher.EI_CODE_PT, 1000., ShiftDispatcher.EI_CODE_FR, 1000.),
+            Map.of(ShiftDispatcher.EI_CODE_ES, 1200., ShiftDispatcher.EI_CODE_PT, 1000., ShiftDispatcher.EI_CODE_FR, 1000.));
+        // each border alone fits in the Spanish headroom
+        assertEquals(1000, glskHeadroomIndex.getMaxCounterTrading(ShiftDispatcher.EI_CODE_PT, 1.), 1e-6);
+        assertEquals(1000, glskHeadroomIndex.getMaxCounterTrading(ShiftDispatcher.EI_CODE_FR, 1.), 1e-6);
+        assertEquals(new CounterTradingValues(900, 300), glskHeadroomIndex.getMaxCounterTradingValues(new CounterTradingValues(900, 300), 1., 1.));
+        // both borders scale Spain up, or both down, and the pair does not fit: the Spanish headroom is shared
+        CounterTradingValues upwardValues = glskHeadroomIndex.getMaxCounterTradingValues(new CounterTradingValues(900, 900), 1., 1.);
+        assertEquals(600, upwardValues.ptEsCt(), 1e-6);
+        assertEquals(600, upwardValues.frEsCt(), 1e-6);
+        CounterTradingValues downwardValues = glskHeadroomIndex.getMaxCounterTradingValues(new CounterTradingValues(900, 300), -1., -1.);
+        assertEquals(900, downwardValues.ptEsCt(), 1e-6);
+        assertEquals(300, downwardValues.frEsCt(), 1e-6);
+        // PT-ES is first reduced to the Portuguese headroom, then both borders share the Spanish one
+        CounterTradingValues unevenValues = glskHeadroomIndex.getMaxCounterTradingValues(new CounterTradingValues(1500, 500), -1., -1.);
+        assertEquals(800, unevenValues.ptEsCt(), 1e-6);
+        assertEquals(400, unevenValues.frEsCt(), 1e-6);
+        // borders scale Spain in opposite directions, each border keeps its own maximum
+        CounterTradingValues oppositeDirectionValues = glskHeadroomIndex.getMaxCounterTradingValues(new CounterTradingValues(900, 900), 1., -1.);
+        assertEquals(900, oppositeDirectionValues.ptEsCt(), 1e-6);
+        assertEquals(900, oppositeDirectionValues.frEsCt(), 1e-6);
+    }
+}
@@ -8,6 +8,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 
+import java.util.List;
+import java.util.Optional;
+
 class IndexTest {
 
     @Mock
@@ -114,4 +117,163 @@ class IndexTest {
         assertEquals(7.5, result.ptEsCt());
         assertEquals(75, result.frEsCt());
     }
+
+    @Test
+    void testNextValuesWithSeveralPointsByBorder() {
+        when(minPtEsCtResult.isSecure()).thenReturn(false);
+        when(minFrEsCtResult.isSecure()).thenReturn(false);
+        when(maxPtEsCtResult.isSecure()).thenReturn(true);
+        when(maxFrEsCtResult.isSecure()).thenReturn(true);
+        index.addPtEsDichotomyStepResult(0, minPtEsCtResult);
+        index.addFrEsDichotomyStepResult(0, minFrEsCtResult);
+        index.addPtEsDichotomyStepResult(100, maxPtEsCtResult);
+        index.addFrEsDichotomyStepResult(200, maxFrEsCtResult);
+        List<CounterTradingValues> result = index.nextValues(3);
+        assertEquals(List.of(new CounterTradingValues(25, 50), new CounterTradingValues(50, 100), new CounterTradingValues(75, 150)), result);
+        assertEquals(List.of(index.nextValues()), index.nextValues(1));
+    }
+
+    @Test
+    void testAddDichotomyStepResultsKeepsTightestBracket() {
+        when(minPtEsCtResult.isSecure()).thenReturn(false);
+        when(maxPtEsCtResult.isSecure()).thenReturn(true);
+        index.addPtEsDichotomyStepResult(0, minPtEsCtResult);
+        index.addPtEsDichotomyStepResult(100, maxPtEsCtResult);
+        DichotomyStepResult unsecure25 = mock(DichotomyStepResult.class);
+        DichotomyStepResult unsecure50 = mock(DichotomyStepResult.class);
+        DichotomyStepResult secure75 = mock(DichotomyStepResult.class);
+        when(unsecure25.isSecure()).thenReturn(false);
+        when(unsecure50.isSecure()).thenReturn(false);
+        when(secure75.isSecure()).thenReturn(true);
+        index.addPtEsDichotomyStepResults(List.of(Pair.of(25., unsecure25), Pair.of(75., secure75), Pair.of(50., unsecure50)));
+        assertEquals(Pair.of(50., unsecure50), index.getPtEsHighestUnsecureStep());
+        assertEquals(Pair.of(75., secure75), index.getPtEsLowestSecureStep());
+    }
+
+    @Test
+    void testSpeculativeNextValues() {
+        when(minPtEsCtResult.isSecure()).thenReturn(false);
+        when(minFrEsCtResult.isSecure()).thenReturn(false);
+        when(maxPtEsCtResult.isSecure()).thenReturn(true);
+        when(maxFrEsCtResult.isSecure()).thenReturn(true);
+        index.addPtEsDichotomyStepResult(0, minPtEsCtResult);
+        index.addFrEsDichotomyStepResult(0, minFrEsCtResult);
+        index.addPtEsDichotomyStepResult(100, maxPtEsCtResult);
+        index.addFrEsDichotomyStepResult(200, maxFrEsCtResult);
+        CounterTradingValues counterTradingValues = index.nextValues();
+        assertEquals(List.of(new CounterTradingValues(25, 50), new CounterTradingValues(25, 150), new CounterTradingValues(75, 50), new CounterTradingValues(75, 150)),
+            index.speculativeNextValues(counterTradingValues));
+
+        // speculation does not change the index
+        assertEquals(counterTradingValues, index.nextValues());
+        when(ptEsStepResult.isSecure()).thenReturn(true);
+        when(frEsStepResult.isSecure()).thenReturn(true);
+        index.addPtEsDichotomyStepResult(counterTradingValues.ptEsCt(), ptEsStepResult);
+        index.addFrEsDichotomyStepResult(counterTradingValues.frEsCt(), frEsStepResult);
+        assertEquals(new CounterTradingValues(25, 50), index.nextValues());
+    }
+
+    @Test
+    void testNextValuesWithRegulaFalsiStrategy() {
+        Index regulaFalsiIndex = new Index(0, 0, 10, 10, new RegulaFalsiStrategy());
+        CounterTradingValues ctValues = new CounterTradingValues(0, 0);
+        regulaFalsiIndex.addPtEsDichotomyStepResult(0, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, -100));
+        regulaFalsiIndex.addFrEsDichotomyStepResult(0, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, Double.NaN));
+        regulaFalsiIndex.addPtEsDichotomyStepResult(100, DichotomyStepResult.fromNetworkValidationResult(null, true, null, ctValues, 100));
+        regulaFalsiIndex.addFrEsDichotomyStepResult(100, DichotomyStepResult.fromNetworkValidationResult(null, true, null, ctValues, 100));
+        assertEquals(new CounterTradingValues(50, 50), regulaFalsiIndex.nextValues());
+        regulaFalsiIndex.addPtEsDichotomyStepResult(50, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, -25));
+        regulaFalsiIndex.addFrEsDichotomyStepResult(50, DichotomyStepResult.fromNetworkValidationResult(null, true, null, ctValues, 50));
+        CounterTradingValues nextValues = regulaFalsiIndex.nextValues();
+        assertEquals(60, nextValues.ptEsCt(), 1e-6);
+        assertEquals(25, nextValues.frEsCt(), 1e-6);
+    }
+
+    @Test
+    void testExitConditionWithMarginThreshold() {
+        index.setMarginThreshold(20);
+        CounterTradingValues ctValues = new CounterTradingValues(0, 0);
+        index.addPtEsDichotomyStepResult(0, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, -100));
+        index.addFrEsDichotomyStepResult(0, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, -100));
+        index.addPtEsDichotomyStepResult(100, DichotomyStepResult.fromNetworkValidationResult(null, true, null, ctValues, 15));
+        index.addFrEsDichotomyStepResult(100, DichotomyStepResult.fromNetworkValidationResult(null, true, null, ctValues, 150));
+        assertFalse(index.exitConditionIsNotMetForPtEs());
+        assertTrue(index.exitConditionIsNotMetForFrEs());
+        assertEquals(new CounterTradingValues(100, 50), index.nextValues());
+
+        index.setMarginThreshold(0);
+        assertTrue(index.exitConditionIsNotMetForPtEs());
+    }
+
+    @Test
+    void testEstimatedValues() {
+        CounterTradingValues ctValues = new CounterTradingValues(0, 0);
+        index.addPtEsDichotomyStepResult(0, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, -100));
+        index.addFrEsDichotomyStepResult(0, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, -300));
+        index.addPtEsDichotomyStepResult(1000, DichotomyStepResult.fromNetworkValidationResult(null, true, null, ctValues, 300));
+        index.addFrEsDichotomyStepResult(1000, DichotomyStepResult.fromNetworkValidationResult(null, true, null, ctValues, 40));
+        // estimated value can not exceed lowest secure value
+        assertEquals(Optional.of(new CounterTradingValues(400, 1000)), index.estimatedValues(150));
+
+        index.addFrEsDichotomyStepResult(500, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, Double.NaN));
+        assertTrue(index.estimatedValues(50).isEmpty());
+    }
+
+    @Test
+    void testEstimatedValuesBisectNearBracketEnd() {
+        CounterTradingValues ctValues = new CounterTradingValues(0, 0);
+        index.addPtEsDichotomyStepResult(0, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, -100));
+        index.addFrEsDichotomyStepResult(0, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, -300));
+        index.addPtEsDichotomyStepResult(1000, DichotomyStepResult.fromNetworkValidationResult(null, true, null, ctValues, 300));
+        index.addFrEsDichotomyStepResult(1000, DichotomyStepResult.fromNetworkValidationResult(null, true, null, ctValues, 10));
+        // FR-ES interpolation lands above 90% of the bracket, its middle is estimated instead
+        assertEquals(Optional.of(new CounterTradingValues(300, 550)), index.estimatedValues(50));
+    }
+
+    @Test
+    void testSpeculativeNextValuesMatchNextValuesWithBisection() {
+        assertSpeculativeNextValuesMatchNextValues(new Index(0, 0, 10, 10, new BisectionStrategy()));
+    }
+
+    @Test
+    void testSpeculativeNextValuesNotSupportedWithRegulaFalsi() {
+        Index regulaFalsiIndex = new Index(0, 0, 10, 10, new RegulaFalsiStrategy());
+        CounterTradingValues ctValues = new CounterTradingValues(0, 0);
+        regulaFalsiIndex.addPtEsDichotomyStepResult(0, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, -100));
+        regulaFalsiIndex.addFrEsDichotomyStepResult(0, DichotomyStepResult.fromNetworkValidationResult(null, false, null, ctValues, -100));
+        regulaFalsiIndex.addPtEsDichotomyStepResult(100, DichotomyStepResult.fromNetworkValidationResult(null, true, null, ctValues, 100));
+        regulaFalsiIndex.addFrEsDichotomyStepResult(100, DichotomyStepResult.fromNetworkValidationResult(null, true, null, ctValues, 100));
+        assertFalse(regulaFalsiIndex.isSpeculationSupported());
+        assertTrue(regulaFalsiIndex.speculativeNextValues(regulaFalsiIndex.nextValues()).isEmpty());
+    }
+
+    // Runs a dichotomy where PT-ES is secure from 430 and FR-ES from 610, the next values of each step must be among the predicted ones
+    static void assertSpeculativeNextValuesMatchNextValues(Index index) {
+        CounterTradingValues minCtValues = new CounterTradingValues(0, 0);
+        CounterTradingValues maxCtValues = new CounterTradingValues(1000, 1000);
+        addStepResult(index, minCtValues);
+        addStepResult(index, maxCtValues);
+        int steps = 0;
+        while (index.exitConditionIsNotMetForPtEs() || index.exitConditionIsNotMetForFrEs()) {
+            CounterTradingValues ctValues = index.nextValues();
+            List<CounterTradingValues> speculativeNextValues = index.speculativeNextValues(ctValues);
+            addStepResult(index, ctValues);
+            if (index.exitConditionIsNotMetForPtEs() || index.exitConditionIsNotMetForFrEs()) {
+                assertTrue(speculativeNextValues.contains(index.nextValues()), "next values of step " + ctValues.print() + " were not predicted");
+            }
+            steps++;
+        }
+        assertTrue(steps > 1);
+    }
+
+    // Adds the step result as the dichotomy runner does
+    private static void addStepResult(Index index, CounterTradingValues ctValues) {
+        DichotomyStepResult ptEsResult = DichotomyStepResult.fromNetworkValidationResult(null, ctValues.ptEsCt() >= 430, null, ctValues, ctValues.ptEsCt() - 430);
+        DichotomyStepResult frEsResult = DichotomyStepResult.fromNetworkValidationResult(null, ctValues.frEsCt() >= 610, null, ctValues, ctValues.frEsCt() - 610);
+        boolean ptEsSecure = index.addPtEsDichotomyStepResult(ctValues.ptEsCt(), ptEsResult);
+        boolean frEsSecure = index.addFrEsDichotomyStepResult(ctValues.frEsCt(), frEsResult);
+        if (ptEsSecure && frEsSecure) {
+            index.setBestValidDichotomyStepResult(new ParallelDichotomiesResult(ptEsResult, frEsResult, ctValues));
+        }
+    }
 }
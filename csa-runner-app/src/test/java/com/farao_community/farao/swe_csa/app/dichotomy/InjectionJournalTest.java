@@ -0,0 +1,69 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.farao_community.farao.swe_csa.app.shift.SweCsaZonalData;
+import com.powsybl.glsk.commons.ZonalData;
+import com.powsybl.iidm.modification.scalable.Scalable;
+import com.powsybl.iidm.network.Bus;
+import com.powsybl.iidm.network.Country;
+import com.powsybl.iidm.network.Generator;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.loadflow.LoadFlow;
+import com.powsybl.openrao.commons.EICode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InjectionJournalTest {
+
+    @Test
+    void testRollbackRestoresScaledInjections() {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        ZonalData<Scalable> scalableZonalData = SweCsaZonalData.getZonalData(network);
+        Generator generator = (Generator) scalableZonalData.getData(new EICode(Country.FR).getAreaCode()).filterInjections(network).getFirst();
+        double targetP = generator.getTargetP();
+        double minP = generator.getMinP();
+        double maxP = generator.getMaxP();
+
+        Bus bus = generator.getTerminal().getBusView().getBus();
+        double v = bus.getV();
+        double angle = bus.getAngle();
+
+        try (InjectionJournal journal = InjectionJournal.record(network, scalableZonalData)) {
+            assertTrue(journal.size() > 0);
+            assertEquals(0, journal.rollback());
+
+            generator.setMaxP(maxP + 1000);
+            generator.setMinP(maxP + 500);
+            generator.setTargetP(maxP + 600);
+            generator.getTerminal().disconnect();
+            scalableZonalData.getData(new EICode(Country.ES).getAreaCode()).scale(network, 100);
+            LoadFlow.run(network);
+
+            int restoredInjections = journal.rollback();
+            assertTrue(restoredInjections > 1);
+            assertEquals(targetP, generator.getTargetP(), 1e-6);
+            assertEquals(minP, generator.getMinP(), 1e-6);
+            assertEquals(maxP, generator.getMaxP(), 1e-6);
+            assertTrue(generator.getTerminal().isConnected());
+            assertEquals(v, generator.getTerminal().getBusView().getBus().getV(), 1e-6);
+            assertEquals(angle, generator.getTerminal().getBusView().getBus().getAngle(), 1e-6);
+            assertEquals(0, journal.rollback());
+        }
+    }
+
+    @Test
+    void testClosedJournalIgnoresUpdates() {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        ZonalData<Scalable> scalableZonalData = SweCsaZonalData.getZonalData(network);
+        Generator generator = (Generator) scalableZonalData.getData(new EICode(Country.FR).getAreaCode()).filterInjections(network).getFirst();
+        double targetP = generator.getTargetP();
+
+        InjectionJournal journal = InjectionJournal.record(network, scalableZonalData);
+        journal.close();
+        generator.setTargetP(targetP + 100);
+
+        assertEquals(0, journal.rollback());
+        assertEquals(targetP + 100, generator.getTargetP(), 1e-6);
+    }
+}
@@ -0,0 +1,54 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.farao_community.farao.swe_csa.app.shift.ShiftDispatcher;
+import com.farao_community.farao.swe_csa.app.shift.SweCsaZonalData;
+import com.powsybl.iidm.network.Generator;
+import com.powsybl.iidm.network.Load;
+import com.powsybl.iidm.network.Network;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NetworkDeltaTest {
+
+    @Test
+    void testDeltaRebuildsScaledVariant() throws IOException {
+        Network network = readNetwork();
+        String baseVariantId = network.getVariantManager().getWorkingVariantId();
+        network.getVariantManager().cloneVariant(baseVariantId, "scaled");
+        network.getVariantManager().setWorkingVariant("scaled");
+        SweCsaZonalData.getZonalData(network).getData(ShiftDispatcher.EI_CODE_ES).scale(network, 100);
+        Generator generator = network.getGenerator("FFR1AA11_generator");
+        generator.setMaxP(generator.getMaxP() + 1000);
+        generator.setMinP(generator.getMaxP() - 100);
+        generator.setTargetP(generator.getMaxP() - 50);
+        generator.getTerminal().disconnect();
+
+        NetworkDelta networkDelta = NetworkDelta.compute(network, baseVariantId);
+        assertEquals("scaled", network.getVariantManager().getWorkingVariantId());
+        assertTrue(networkDelta.size() > 1);
+        assertTrue(networkDelta.size() < network.getGeneratorCount() + network.getLoadCount());
+
+        Network rebuiltNetwork = readNetwork();
+        NetworkDelta.fromJson(networkDelta.toJson()).apply(rebuiltNetwork);
+        for (Generator scaledGenerator : network.getGenerators()) {
+            Generator rebuiltGenerator = rebuiltNetwork.getGenerator(scaledGenerator.getId());
+            assertEquals(scaledGenerator.getTargetP(), rebuiltGenerator.getTargetP(), 1e-6);
+            assertEquals(scaledGenerator.getMinP(), rebuiltGenerator.getMinP(), 1e-6);
+            assertEquals(scaledGenerator.getMaxP(), rebuiltGenerator.getMaxP(), 1e-6);
+            assertEquals(scaledGenerator.getTerminal().isConnected(), rebuiltGenerator.getTerminal().isConnected());
+        }
+        for (Load scaledLoad : network.getLoads()) {
+            assertEquals(scaledLoad.getP0(), rebuiltNetwork.getLoad(scaledLoad.getId()).getP0(), 1e-6);
+        }
+        network.getVariantManager().setWorkingVariant(baseVariantId);
+        assertEquals(0, NetworkDelta.compute(network, baseVariantId).size());
+    }
+
+    private Network readNetwork() {
+        return Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NextPointStrategyTest {
+
+    @Test
+    void testFromName() {
+        assertInstanceOf(BisectionStrategy.class, NextPointStrategy.fromName("BISECTION"));
+        assertInstanceOf(RegulaFalsiStrategy.class, NextPointStrategy.fromName("regula_falsi"));
+        assertThrows(IllegalArgumentException.class, () -> NextPointStrategy.fromName("NEWTON"));
+    }
+
+    @Test
+    void testBisection() {
+        assertEquals(50, new BisectionStrategy().nextValue(step(0, false, -100), step(100, true, 300)));
+    }
+
+    @Test
+    void testRegulaFalsiInterpolatesOnWorstMargin() {
+        assertEquals(25, new RegulaFalsiStrategy().nextValue(step(0, false, -100), step(100, true, 300)));
+    }
+
+    @Test
+    void testRegulaFalsiFallsBackToBisection() {
+        RegulaFalsiStrategy regulaFalsiStrategy = new RegulaFalsiStrategy();
+        // unknown margin
+        assertEquals(50, regulaFalsiStrategy.nextValue(step(0, false, Double.NaN), step(100, true, 300)));
+        // secure by flow but unsecure by angle or voltage monitoring
+        assertEquals(50, regulaFalsiStrategy.nextValue(step(0, false, 10), step(100, true, 300)));
+        // interpolated value too close to a bound
+        assertEquals(50, regulaFalsiStrategy.nextValue(step(0, false, -1), step(100, true, 300)));
+        assertEquals(50, regulaFalsiStrategy.nextValue(step(0, false, -300), step(100, true, 1)));
+    }
+
+    private static Pair<Double, DichotomyStepResult> step(double ctValue, boolean secure, double worstMargin) {
+        return Pair.of(ctValue, DichotomyStepResult.fromNetworkValidationResult(null, secure, null, new CounterTradingValues(ctValue, ctValue), worstMargin));
+    }
+}
@@ -1,7 +1,15 @@
 package com.farao_community.farao.swe_csa.app.dichotomy;
 
+import com.farao_community.farao.swe_csa.api.exception.CsaInternalException;
 import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
 
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
 import static org.mockito.Mockito.*;
@@ -28,4 +36,60 @@ class ParallelDichotomiesRunnerTest {
         assertEquals(resultFrEs, result.getFrEsResult());
         assertEquals(counterTradingValues, result.getCounterTradingValues());
     }
+
+    @Test
+    void testRunAll() {
+        ParallelDichotomiesResult firstResult = mock(ParallelDichotomiesResult.class);
+        ParallelDichotomiesResult secondResult = mock(ParallelDichotomiesResult.class);
+
+        ParallelDichotomiesRunner runner = new ParallelDichotomiesRunner();
+        List<ParallelDichotomiesResult> results = runner.runAll("task1", List.of(() -> firstResult, () -> secondResult));
+
+        assertEquals(List.of(firstResult, secondResult), results);
+    }
+
+    @Test
+    void testRunAllWaitsForRunningStepsWhenOneFails() {
+        CountDownLatch runningStepStarted = new CountDownLatch(1);
+        AtomicBoolean runningStepFinished = new AtomicBoolean();
+        Supplier<ParallelDichotomiesResult> runningStep = () -> {
+            runningStepStarted.countDown();
+            try {
+                // still running when the other step fails
+                new CountDownLatch(1).await(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            runningStepFinished.set(true);
+            return mock(ParallelDichotomiesResult.class);
+        };
+        Supplier<ParallelDichotomiesResult> failingStep = () -> {
+            try {
+                runningStepStarted.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("RAO failed");
+        };
+
+        ParallelDichotomiesRunner runner = new ParallelDichotomiesRunner();
+        assertThrows(CsaInternalException.class, () -> runner.runAll("task1", List.of(runningStep, failingStep)));
+        // the variant of the running step can be removed once runAll returned
+        assertTrue(runningStepFinished.get());
+    }
+
+    @Test
+    void testSubmitBorder() {
+        DichotomyStepResult stepResult = mock(DichotomyStepResult.class);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ParallelDichotomiesRunner runner = new ParallelDichotomiesRunner();
+            assertEquals(stepResult, runner.submitBorder(DichotomyDirection.PT_ES, () -> {
+                assertEquals("PT_ES", MDC.get("eventPrefix"));
+                return stepResult;
+            }, executor).join());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ScalingJacobianTest {
+
+    @Test
+    void testIdentityGivesRawMismatchCorrection() {
+        assertArrayEquals(new double[]{-5, 3}, new ScalingJacobian().scalingVariation(new double[]{5, -3}), 1e-9);
+    }
+
+    @Test
+    void testBroydenUpdate() {
+        ScalingJacobian scalingJacobian = new ScalingJacobian();
+        scalingJacobian.update(new double[]{10, 0}, new double[]{8, 0.5});
+        assertEquals(0.8, scalingJacobian.get(0, 0), 1e-9);
+        assertEquals(0.05, scalingJacobian.get(1, 0), 1e-9);
+        assertEquals(0, scalingJacobian.get(0, 1), 1e-9);
+        assertEquals(1, scalingJacobian.get(1, 1), 1e-9);
+        assertArrayEquals(new double[]{-10, -0.5}, scalingJacobian.scalingVariation(new double[]{8, 1}), 1e-9);
+    }
+
+    @Test
+    void testSingularJacobian() {
+        ScalingJacobian scalingJacobian = new ScalingJacobian();
+        scalingJacobian.update(new double[]{1, 0}, new double[]{0, 0});
+        assertNull(scalingJacobian.scalingVariation(new double[]{8, 1}));
+    }
+}
@@ -32,4 +32,36 @@ class ShiftDispatcherTest {
         assertEquals(-765.25, dispatchingResult.get(new EICode(Country.FR).getAreaCode()));
         assertEquals(600.25, dispatchingResult.get(new EICode(Country.PT).getAreaCode()));
     }
+
+    @Test
+    void testDispatchWithLearnedEstimate() {
+        String esCode = new EICode(Country.ES).getAreaCode();
+        String frCode = new EICode(Country.FR).getAreaCode();
+        String ptCode = new EICode(Country.PT).getAreaCode();
+        ShiftDispatcher dispatcher = new ShiftDispatcher(Map.of(Country.ES.getName(), -1., Country.FR.getName(), 1., Country.PT.getName(), 2.));
+        dispatcher.setLearnedEstimate(true);
+        dispatcher.recordConvergedScaling(new CounterTradingValues(0, 0), Map.of(esCode, 10., frCode, -10., ptCode, 0.));
+        dispatcher.recordConvergedScaling(new CounterTradingValues(0, 200), Map.of(esCode, 230., frCode, -230., ptCode, 0.));
+
+        // corrections already converged are applied as they are
+        Map<String, Double> dispatchingResult = dispatcher.dispatch(new CounterTradingValues(0, 200));
+        assertEquals(230., dispatchingResult.get(esCode), 1e-6);
+        assertEquals(-230., dispatchingResult.get(frCode), 1e-6);
+        assertEquals(0., dispatchingResult.get(ptCode), 1e-6);
+
+        // halfway between converged points, both corrections have the same weight
+        dispatchingResult = dispatcher.dispatch(new CounterTradingValues(0, 100));
+        assertEquals(120., dispatchingResult.get(esCode), 1e-6);
+        assertEquals(-120., dispatchingResult.get(frCode), 1e-6);
+        assertEquals(0., dispatchingResult.get(ptCode), 1e-6);
+    }
+
+    @Test
+    void testDispatchIgnoresConvergedScalingWhenLearnedEstimateIsDisabled() {
+        String frCode = new EICode(Country.FR).getAreaCode();
+        ShiftDispatcher dispatcher = new ShiftDispatcher(Map.of(Country.ES.getName(), -1., Country.FR.getName(), 1., Country.PT.getName(), 2.));
+        dispatcher.recordConvergedScaling(new CounterTradingValues(0, 200), Map.of(new EICode(Country.ES).getAreaCode(), 230., frCode, -230., new EICode(Country.PT).getAreaCode(), 0.));
+
+        assertEquals(-200., dispatcher.dispatch(new CounterTradingValues(0, 200)).get(frCode), 1e-6);
+    }
 }
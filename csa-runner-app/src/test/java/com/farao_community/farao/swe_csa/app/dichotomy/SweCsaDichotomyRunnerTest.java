@@ -2,6 +2,7 @@ package com.farao_community.farao.swe_csa.app.dichotomy;
 
 import com.farao_community.farao.dichotomy.api.exceptions.GlskLimitationException;
 import com.farao_community.farao.dichotomy.api.exceptions.ShiftingException;
+import com.farao_community.farao.gridcapa_swe_commons.shift.CountryBalanceComputation;
 import com.farao_community.farao.rao_runner.api.resource.AbstractRaoResponse;
 import com.farao_community.farao.rao_runner.starter.RaoRunnerClient;
 import com.farao_community.farao.swe_csa.api.resource.CsaRequest;
@@ -17,8 +18,13 @@ import com.powsybl.iidm.network.Country;
 import com.powsybl.iidm.network.Network;
 import com.powsybl.openrao.data.crac.api.Crac;
 import com.powsybl.openrao.data.crac.impl.CounterTradeRangeActionImpl;
+import com.powsybl.openrao.raoapi.parameters.RaoParameters;
+import com.powsybl.openrao.raoapi.parameters.extensions.LoadFlowAndSensitivityParameters;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.slf4j.LoggerFactory;
@@ -28,9 +34,18 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cloud.stream.function.StreamBridge;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 
@@ -56,6 +71,9 @@ class SweCsaDichotomyRunnerTest {
     @MockBean
     InterruptionService interruptionService;
 
+    @MockBean
+    CounterTradingHistoryStore counterTradingHistoryStore;
+
     @Autowired
     ParallelDichotomiesRunner parallelDichotomiesRunner;
 
@@ -83,19 +101,275 @@ class SweCsaDichotomyRunnerTest {
         Mockito.when(fileImporter.importCrac("csa-task-id", "pt-es-crac-url", network)).thenReturn(ptEsCrac);
         Mockito.when(fileImporter.importCrac("csa-task-id", "fr-es-crac-url", network)).thenReturn(frEsCrac);
         Mockito.when(fileImporter.getZonalData("csa-task-id", utcInstant, "glsk-url", network)).thenReturn(scalableZonalData);
-        Mockito.when(fileExporter.saveNetworkInArtifact(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn("scaled-network-url");
+        Mockito.when(fileExporter.saveNetworkInArtifact(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn("scaled-network-url");
         AbstractRaoResponse raoResponse = Mockito.mock(AbstractRaoResponse.class);
         Mockito.when(raoRunnerClient.runRao(Mockito.any())).thenReturn(raoResponse);
-        SweCsaRaoValidator sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
         CsaRequest csaRequest = new CsaRequest("csa-task-id", "2023-09-13T09:30:00Z", "cgm-url", "glsk-url", "pt-es-crac-url", "fr-es-crac-url");
 
-        DichotomyRunner sweCsaDichotomyRunner = new DichotomyRunner(sweCsaRaoValidator, fileImporter, fileExporter, interruptionService, streamBridge, s3ArtifactsAdapter, LoggerFactory.getLogger(SweCsaDichotomyRunnerTest.class), parallelDichotomiesRunner);
+        DichotomyRunner sweCsaDichotomyRunner = new DichotomyRunner(sweCsaRaoValidator, fileImporter, fileExporter, interruptionService, streamBridge, s3ArtifactsAdapter, LoggerFactory.getLogger(SweCsaDichotomyRunnerTest.class), parallelDichotomiesRunner, counterTradingHistoryStore);
         sweCsaDichotomyRunner.setIndexPrecision(50);
         sweCsaDichotomyRunner.setMaxDichotomiesByBorder(10);
         FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(csaRequest, "pt-es-rao-result-path", "fr-es-rao-result-path");
+        assertLowestSecureCounterTradingFound(sweCsaRaoValidator, finalResult);
+        // input network, maximum CT then bisection of the FR-ES bracket, one step at a time
+        List<Double> validatedFrEsCounterTrading = sweCsaRaoValidator.getValidatedFrEsCounterTrading();
+        assertEquals(0, validatedFrEsCounterTrading.get(0).doubleValue());
+        assertEquals(validatedFrEsCounterTrading.get(1) / 2, validatedFrEsCounterTrading.get(2).doubleValue(), 1e-6);
+        Mockito.verify(interruptionService, Mockito.never()).registerRaoRun(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SearchMode.class)
+    void runCounterTradingFindsLowestSecureCounterTradingTest(SearchMode searchMode) throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, searchMode);
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        assertLowestSecureCounterTradingFound(sweCsaRaoValidator, finalResult);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SearchMode.class, names = {"COUPLED", "DECOUPLED"})
+    void runCounterTradingOnBothBordersTest(SearchMode searchMode) throws GlskLimitationException, ShiftingException {
+        Network network = readNetworkWithPtEsLine();
+        CounterTradingValues maxCounterTradingValues = computeMaxCounterTradingValues(network);
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        // each border needs a third of its maximum CT, both brackets are narrowed
+        sweCsaRaoValidator.setSecurityThresholds(maxCounterTradingValues.ptEsCt() / 3, maxCounterTradingValues.frEsCt() / 3);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, network, searchMode);
+        // a coupled step counts for both borders whichever border it moves
+        sweCsaDichotomyRunner.setMaxDichotomiesByBorder(20);
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        assertLowestSecureCounterTradingFound(sweCsaRaoValidator, finalResult);
+    }
+
+    @Test
+    void runCounterTradingWithSeveralPointsByBorderTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        // input network and maximum CT are validated one after the other, the points of the first round together
+        sweCsaRaoValidator.holdFrEsValidationsUntilConcurrent(2, 3);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.MULTI_POINT);
+        sweCsaDichotomyRunner.setPointsByBorder(3);
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        assertLowestSecureCounterTradingFound(sweCsaRaoValidator, finalResult);
+        assertTrue(sweCsaRaoValidator.concurrentFrEsValidationsReached());
+        List<Double> validatedFrEsCounterTrading = sweCsaRaoValidator.getValidatedFrEsCounterTrading();
+        double maxFrEsCounterTrading = validatedFrEsCounterTrading.get(1);
+        assertEquals(Set.of(maxFrEsCounterTrading / 4, maxFrEsCounterTrading / 2, 3 * maxFrEsCounterTrading / 4), Set.copyOf(validatedFrEsCounterTrading.subList(2, 5)));
+    }
+
+    @Test
+    void runCounterTradingWithSpeculativeNextStepsTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        // after input network and maximum CT, the first round runs the bisection step with the next step of both its outcomes
+        sweCsaRaoValidator.holdFrEsValidationsUntilConcurrent(2, 3);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.SPECULATIVE);
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        assertLowestSecureCounterTradingFound(sweCsaRaoValidator, finalResult);
+        assertTrue(sweCsaRaoValidator.concurrentFrEsValidationsReached());
+        List<Double> validatedFrEsCounterTrading = sweCsaRaoValidator.getValidatedFrEsCounterTrading();
+        double maxFrEsCounterTrading = validatedFrEsCounterTrading.get(1);
+        assertEquals(Set.of(maxFrEsCounterTrading / 2, maxFrEsCounterTrading / 4, 3 * maxFrEsCounterTrading / 4), Set.copyOf(validatedFrEsCounterTrading.subList(2, 5)));
+
+        ArgumentCaptor<String> registeredRunIds = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(interruptionService, Mockito.atLeastOnce()).registerRaoRun(Mockito.eq("csa-task-id"), registeredRunIds.capture());
+        // a mispredicted step is only stopped if it still runs once the round result is known
+        ArgumentCaptor<String> stoppedRunIds = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(interruptionService, Mockito.atLeast(0)).stopRaoRun(Mockito.eq("csa-task-id"), stoppedRunIds.capture());
+        assertTrue(registeredRunIds.getAllValues().containsAll(stoppedRunIds.getAllValues()));
+        // each speculative step has its own run
+        assertEquals(registeredRunIds.getAllValues().size(), Set.copyOf(registeredRunIds.getAllValues()).size());
+    }
+
+    @Test
+    void runCounterTradingWithConcurrentBracketProbesTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        sweCsaRaoValidator.holdFrEsValidationsUntilConcurrent(0, 2);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.SEQUENTIAL);
+        sweCsaDichotomyRunner.setConcurrentBracketProbes(true);
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        assertLowestSecureCounterTradingFound(sweCsaRaoValidator, finalResult);
+        // input network and maximum CT are validated together, the maximum CT is not validated again
+        List<Double> validatedFrEsCounterTrading = sweCsaRaoValidator.getValidatedFrEsCounterTrading();
+        double maxFrEsCounterTrading = Collections.max(validatedFrEsCounterTrading);
+        assertEquals(Set.of(0., maxFrEsCounterTrading), Set.copyOf(validatedFrEsCounterTrading.subList(0, 2)));
+        assertEquals(1, validatedFrEsCounterTrading.stream().filter(ct -> ct == maxFrEsCounterTrading).count());
+        assertTrue(sweCsaRaoValidator.concurrentFrEsValidationsReached());
+    }
+
+    @Test
+    void runCounterTradingWithExhaustedTimeBudgetTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.SEQUENTIAL);
+        sweCsaDichotomyRunner.setTimeBudgetEnabled(true);
+        sweCsaDichotomyRunner.setAsyncTimeOut(0);
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
         Assertions.assertEquals(Status.FINISHED_SECURE, finalResult.ptEsResult().getRight());
         Assertions.assertEquals(Status.FINISHED_SECURE, finalResult.frEsResult().getRight());
+        // no dichotomy step fits in the budget, maximum CT is returned
+        List<Double> validatedFrEsCounterTrading = sweCsaRaoValidator.getValidatedFrEsCounterTrading();
+        assertEquals(2, validatedFrEsCounterTrading.size());
+        assertEquals(0, validatedFrEsCounterTrading.get(0).doubleValue());
+        assertEquals(validatedFrEsCounterTrading.get(1).doubleValue(), sweCsaRaoValidator.getCounterTradingValues(finalResult.frEsResult().getLeft()).frEsCt());
+    }
+
+    @Test
+    void runCounterTradingWithGallopingSearchTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.GALLOPING);
+        sweCsaDichotomyRunner.setGallopingInitialCounterTrading(100);
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        assertLowestSecureCounterTradingFound(sweCsaRaoValidator, finalResult);
+        // CT is doubled up to the first secure step, which replaces the maximum CT step
+        List<Double> validatedFrEsCounterTrading = sweCsaRaoValidator.getValidatedFrEsCounterTrading();
+        assertEquals(List.of(0., 100., 200., 400., 800.), validatedFrEsCounterTrading.subList(0, 5));
+        assertTrue(validatedFrEsCounterTrading.stream().allMatch(ct -> ct <= 800));
+    }
+
+    @Test
+    void runCounterTradingWithInterruptedGallopingSearchTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.GALLOPING);
+        sweCsaDichotomyRunner.setGallopingInitialCounterTrading(100);
+        Mockito.when(interruptionService.getTasksToInterrupt()).thenReturn(new HashSet<>(Set.of("csa-task-id")));
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        Assertions.assertEquals(Status.INTERRUPTED_UNSECURE, finalResult.ptEsResult().getRight());
+        Assertions.assertEquals(Status.INTERRUPTED_UNSECURE, finalResult.frEsResult().getRight());
+        // interruption is checked before the first galloping step
+        assertEquals(List.of(0.), sweCsaRaoValidator.getValidatedFrEsCounterTrading());
+    }
+
+    @Test
+    void runCounterTradingWithWarmStartTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.WARM_START);
+        sweCsaDichotomyRunner.setWarmStartMargin(100);
+        Mockito.when(counterTradingHistoryStore.find("2023-09-13T09:30:00Z")).thenReturn(Optional.of(new CounterTradingHistory(100, 650, 100, 0, 650, 600)));
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        assertLowestSecureCounterTradingFound(sweCsaRaoValidator, finalResult);
+        // the bracket around the history replaces the maximum CT step
+        List<Double> validatedFrEsCounterTrading = sweCsaRaoValidator.getValidatedFrEsCounterTrading();
+        assertEquals(Set.of(550., 750.), Set.copyOf(validatedFrEsCounterTrading.subList(1, 3)));
+        assertTrue(validatedFrEsCounterTrading.stream().allMatch(ct -> ct <= 750));
+        ArgumentCaptor<CounterTradingHistory> savedHistory = ArgumentCaptor.forClass(CounterTradingHistory.class);
+        Mockito.verify(counterTradingHistoryStore).save(Mockito.eq("2023-09-13T09:30:00Z"), savedHistory.capture());
+        assertEquals(sweCsaRaoValidator.getCounterTradingValues(finalResult.frEsResult().getLeft()).frEsCt(), savedHistory.getValue().frEsCt());
+    }
+
+    @Test
+    void runCounterTradingWithWarmStartAndExhaustedTimeBudgetTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.WARM_START);
+        sweCsaDichotomyRunner.setWarmStartMargin(100);
+        sweCsaDichotomyRunner.setTimeBudgetEnabled(true);
+        sweCsaDichotomyRunner.setAsyncTimeOut(0);
+        Mockito.when(counterTradingHistoryStore.find("2023-09-13T09:30:00Z")).thenReturn(Optional.of(new CounterTradingHistory(100, 650, 100, 0, 650, 600)));
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        Assertions.assertEquals(Status.FINISHED_SECURE, finalResult.frEsResult().getRight());
+        // warm start bracket does not fit in the budget, maximum CT is validated instead
+        List<Double> validatedFrEsCounterTrading = sweCsaRaoValidator.getValidatedFrEsCounterTrading();
+        assertEquals(2, validatedFrEsCounterTrading.size());
+        assertEquals(0, validatedFrEsCounterTrading.get(0).doubleValue());
+        assertEquals(validatedFrEsCounterTrading.get(1).doubleValue(), sweCsaRaoValidator.getCounterTradingValues(finalResult.frEsResult().getLeft()).frEsCt());
+    }
+
+    @Test
+    void runCounterTradingWithInterruptedWarmStartTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.WARM_START);
+        sweCsaDichotomyRunner.setWarmStartMargin(100);
+        Mockito.when(counterTradingHistoryStore.find("2023-09-13T09:30:00Z")).thenReturn(Optional.of(new CounterTradingHistory(100, 650, 100, 0, 650, 600)));
+        Mockito.when(interruptionService.getTasksToInterrupt()).thenReturn(new HashSet<>(Set.of("csa-task-id")));
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        Assertions.assertEquals(Status.INTERRUPTED_UNSECURE, finalResult.ptEsResult().getRight());
+        Assertions.assertEquals(Status.INTERRUPTED_UNSECURE, finalResult.frEsResult().getRight());
+        assertEquals(List.of(0.), sweCsaRaoValidator.getValidatedFrEsCounterTrading());
+        Mockito.verify(counterTradingHistoryStore, Mockito.never()).save(Mockito.anyString(), Mockito.any());
+    }
+
+    @Test
+    void runCounterTradingWithEstimateAndVerifyTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.SEQUENTIAL);
+        sweCsaDichotomyRunner.setEstimateAndVerifyEnabled(true);
+        sweCsaDichotomyRunner.setEstimateHeadroom(50);
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        assertLowestSecureCounterTradingFound(sweCsaRaoValidator, finalResult);
+        // mocked margins are linear in CT, the estimate plus headroom is secure and no dichotomy step is run
+        List<Double> validatedFrEsCounterTrading = sweCsaRaoValidator.getValidatedFrEsCounterTrading();
+        assertEquals(3, validatedFrEsCounterTrading.size());
+        assertEquals(650, validatedFrEsCounterTrading.get(2).doubleValue(), 1e-6);
+    }
+
+    @Test
+    void runCounterTradingWithCoupledSearchTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock bordersRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        DichotomyRunner bordersDichotomyRunner = buildDichotomyRunner(bordersRaoValidator, SearchMode.SEQUENTIAL);
+        bordersDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.COUPLED);
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        assertLowestSecureCounterTradingFound(sweCsaRaoValidator, finalResult);
+        // PT-ES is secure without CT, the pairs searched together then follow the FR-ES border dichotomy
+        assertEquals(bordersRaoValidator.getValidatedFrEsCounterTrading(), sweCsaRaoValidator.getValidatedFrEsCounterTrading());
+    }
+
+    @Test
+    void runCounterTradingWithDecoupledBordersTest() throws GlskLimitationException, ShiftingException {
+        SweCsaRaoValidatorMock sweCsaRaoValidator = new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient);
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunner(sweCsaRaoValidator, SearchMode.DECOUPLED);
+        FinalResult finalResult = sweCsaDichotomyRunner.runDichotomy(buildCsaRequest(), "pt-es-rao-result-path", "fr-es-rao-result-path");
+        assertLowestSecureCounterTradingFound(sweCsaRaoValidator, finalResult);
+        // FR-ES border steps run without a PT-ES RAO
+        Map<String, Set<String>> bordersByRunId = sweCsaRaoValidator.getValidations().stream()
+            .collect(Collectors.groupingBy(SweCsaRaoValidatorMock.Validation::runId, Collectors.mapping(SweCsaRaoValidatorMock.Validation::border, Collectors.toSet())));
+        assertTrue(bordersByRunId.values().stream().anyMatch(borders -> borders.equals(Set.of("FR-ES"))));
+        Mockito.verify(interruptionService, Mockito.never()).stopRaoRun(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test
+    void validateConfigurationFailsOnSpeculationWithRegulaFalsi() {
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunnerWithMockedInputs();
+        sweCsaDichotomyRunner.setNextPointStrategy("REGULA_FALSI");
+        sweCsaDichotomyRunner.setSearchMode(SearchMode.SPECULATIVE);
+        assertThrows(IllegalArgumentException.class, sweCsaDichotomyRunner::validateConfiguration);
+        sweCsaDichotomyRunner.setSearchMode(SearchMode.DECOUPLED);
+        assertDoesNotThrow(sweCsaDichotomyRunner::validateConfiguration);
+    }
+
+    @Test
+    void validateConfigurationFailsOnSinglePointRounds() {
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunnerWithMockedInputs();
+        sweCsaDichotomyRunner.setSearchMode(SearchMode.MULTI_POINT);
+        sweCsaDichotomyRunner.setPointsByBorder(1);
+        assertThrows(IllegalArgumentException.class, sweCsaDichotomyRunner::validateConfiguration);
+    }
+
+    @Test
+    void validateConfigurationFailsOnEmptySpeculativePool() {
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunnerWithMockedInputs();
+        sweCsaDichotomyRunner.setSearchMode(SearchMode.SPECULATIVE);
+        sweCsaDichotomyRunner.setSpeculativePoolSize(0);
+        assertThrows(IllegalArgumentException.class, sweCsaDichotomyRunner::validateConfiguration);
+    }
+
+    @Test
+    void validateConfigurationFailsOnConcurrentProbeOfReplacedMaximumCounterTrading() {
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunnerWithMockedInputs();
+        sweCsaDichotomyRunner.setConcurrentBracketProbes(true);
+        assertDoesNotThrow(sweCsaDichotomyRunner::validateConfiguration);
+        sweCsaDichotomyRunner.setSearchMode(SearchMode.GALLOPING);
+        assertThrows(IllegalArgumentException.class, sweCsaDichotomyRunner::validateConfiguration);
+        sweCsaDichotomyRunner.setSearchMode(SearchMode.WARM_START);
+        assertThrows(IllegalArgumentException.class, sweCsaDichotomyRunner::validateConfiguration);
+    }
 
+    @Test
+    void validateConfigurationFailsOnUnknownNextPointStrategy() {
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunnerWithMockedInputs();
+        sweCsaDichotomyRunner.setNextPointStrategy("NEWTON");
+        assertThrows(IllegalArgumentException.class, sweCsaDichotomyRunner::validateConfiguration);
     }
 
     @Test
@@ -136,6 +410,91 @@ class SweCsaDichotomyRunnerTest {
         assertEquals(300.0, resultMaxCT2);
     }
 
+    private DichotomyRunner buildDichotomyRunnerWithMockedInputs() {
+        return buildDichotomyRunnerWithMockedInputs(new SweCsaRaoValidatorMock(fileExporter, raoRunnerClient), readNetwork());
+    }
+
+    private DichotomyRunner buildDichotomyRunner(SweCsaRaoValidatorMock sweCsaRaoValidator, SearchMode searchMode) {
+        return buildDichotomyRunner(sweCsaRaoValidator, readNetwork(), searchMode);
+    }
+
+    private DichotomyRunner buildDichotomyRunner(SweCsaRaoValidatorMock sweCsaRaoValidator, Network network, SearchMode searchMode) {
+        DichotomyRunner sweCsaDichotomyRunner = buildDichotomyRunnerWithMockedInputs(sweCsaRaoValidator, network);
+        sweCsaDichotomyRunner.setIndexPrecision(50);
+        sweCsaDichotomyRunner.setMaxDichotomiesByBorder(10);
+        sweCsaDichotomyRunner.setSearchMode(searchMode);
+        sweCsaDichotomyRunner.setGallopingInitialCounterTrading(100);
+        return sweCsaDichotomyRunner;
+    }
+
+    private DichotomyRunner buildDichotomyRunnerWithMockedInputs(SweCsaRaoValidatorMock sweCsaRaoValidator, Network network) {
+        Instant utcInstant = Instant.parse("2023-09-13T09:30:00Z");
+        ZonalData<Scalable> scalableZonalData = SweCsaZonalData.getZonalData(network);
+
+        Crac ptEsCrac = Mockito.mock(Crac.class);
+        Crac frEsCrac = Mockito.mock(Crac.class);
+        Mockito.when(ptEsCrac.getCounterTradeRangeActions()).thenReturn(Set.of(mockCtAction(Country.PT, Country.ES), mockCtAction(Country.ES, Country.PT)));
+        Mockito.when(frEsCrac.getCounterTradeRangeActions()).thenReturn(Set.of(mockCtAction(Country.FR, Country.ES), mockCtAction(Country.ES, Country.FR)));
+
+        Mockito.when(fileImporter.uploadRaoParameters(utcInstant)).thenReturn("rao-parameters-url");
+        Mockito.when(fileImporter.importNetwork("csa-task-id", "cgm-url")).thenReturn(network);
+        Mockito.when(fileImporter.importCrac("csa-task-id", "pt-es-crac-url", network)).thenReturn(ptEsCrac);
+        Mockito.when(fileImporter.importCrac("csa-task-id", "fr-es-crac-url", network)).thenReturn(frEsCrac);
+        Mockito.when(fileImporter.getZonalData("csa-task-id", utcInstant, "glsk-url", network)).thenReturn(scalableZonalData);
+        Mockito.when(fileExporter.saveNetworkInArtifact(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn("scaled-network-url");
+        return new DichotomyRunner(sweCsaRaoValidator, fileImporter, fileExporter, interruptionService, streamBridge, s3ArtifactsAdapter, LoggerFactory.getLogger(SweCsaDichotomyRunnerTest.class), parallelDichotomiesRunner, counterTradingHistoryStore);
+    }
+
+    private Network readNetwork() {
+        return Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+    }
+
+    // the test case has no line between Spain and Portugal, so no PT-ES exchange to counter trade
+    private Network readNetworkWithPtEsLine() {
+        Network network = readNetwork();
+        network.newLine()
+            .setId("EES3AA11 PPT2AA11 1")
+            .setVoltageLevel1("EES2AA1")
+            .setBus1("EES3AA11")
+            .setConnectableBus1("EES3AA11")
+            .setVoltageLevel2("PPT2AA1")
+            .setBus2("PPT2AA11")
+            .setConnectableBus2("PPT2AA11")
+            .setR(0)
+            .setX(10)
+            .setG1(0)
+            .setB1(0)
+            .setG2(0)
+            .setB2(0)
+            .add();
+        return network;
+    }
+
+    // maximum CT of the mocked CRACs is the initial exchange of each border
+    private static CounterTradingValues computeMaxCounterTradingValues(Network network) {
+        CountryBalanceComputation.computeSweCountriesBalances(network, LoadFlowAndSensitivityParameters.getSensitivityWithLoadFlowParameters(RaoParameters.load()).getLoadFlowParameters());
+        Map<String, Double> exchanges = CountryBalanceComputation.computeSweBordersExchanges(network);
+        return new CounterTradingValues(Math.abs(exchanges.get("ES_PT")), Math.abs(exchanges.get("ES_FR")));
+    }
+
+    // the CT found on each border is secure and within the index precision of the mocked security threshold
+    private static void assertLowestSecureCounterTradingFound(SweCsaRaoValidatorMock sweCsaRaoValidator, FinalResult finalResult) {
+        Assertions.assertEquals(Status.FINISHED_SECURE, finalResult.ptEsResult().getRight());
+        Assertions.assertEquals(Status.FINISHED_SECURE, finalResult.frEsResult().getRight());
+        CounterTradingValues counterTradingValues = sweCsaRaoValidator.getCounterTradingValues(finalResult.frEsResult().getLeft());
+        assertEquals(counterTradingValues, sweCsaRaoValidator.getCounterTradingValues(finalResult.ptEsResult().getLeft()));
+        assertLowestSecureCounterTradingFound(counterTradingValues.ptEsCt(), sweCsaRaoValidator.getPtEsSecurityThreshold(), "PT-ES");
+        assertLowestSecureCounterTradingFound(counterTradingValues.frEsCt(), sweCsaRaoValidator.getFrEsSecurityThreshold(), "FR-ES");
+    }
+
+    private static void assertLowestSecureCounterTradingFound(double counterTrading, double securityThreshold, String border) {
+        assertTrue(counterTrading > securityThreshold && counterTrading <= securityThreshold + 50 + 1e-6, border + " CT found: " + counterTrading);
+    }
+
+    private static CsaRequest buildCsaRequest() {
+        return new CsaRequest("csa-task-id", "2023-09-13T09:30:00Z", "cgm-url", "glsk-url", "pt-es-crac-url", "fr-es-crac-url");
+    }
+
     private static CounterTradeRangeActionImpl mockCtAction(Country exporting, Country importing) {
         CounterTradeRangeActionImpl action = Mockito.mock(CounterTradeRangeActionImpl.class);
         Mockito.when(action.getExportingCountry()).thenReturn(exporting);
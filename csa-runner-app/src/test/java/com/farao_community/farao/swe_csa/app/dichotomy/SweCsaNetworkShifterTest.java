@@ -3,12 +3,14 @@ package com.farao_community.farao.swe_csa.app.dichotomy;
 import com.farao_community.farao.dichotomy.api.exceptions.GlskLimitationException;
 import com.farao_community.farao.dichotomy.api.exceptions.ShiftingException;
 import com.farao_community.farao.gridcapa_swe_commons.shift.CountryBalanceComputation;
+import com.farao_community.farao.swe_csa.app.shift.GlskHeadroomIndex;
 import com.farao_community.farao.swe_csa.app.shift.ShiftDispatcher;
 import com.farao_community.farao.swe_csa.app.shift.SweCsaZonalData;
 import com.powsybl.glsk.commons.ZonalData;
 import com.powsybl.iidm.modification.scalable.Scalable;
 import com.powsybl.iidm.network.Country;
 import com.powsybl.iidm.network.Network;
+import com.powsybl.loadflow.LoadFlowParameters;
 import com.powsybl.openloadflow.OpenLoadFlowParameters;
 import com.powsybl.openrao.commons.EICode;
 import com.powsybl.openrao.raoapi.parameters.RaoParameters;
@@ -17,10 +19,12 @@ import com.powsybl.openrao.raoapi.parameters.extensions.OpenRaoSearchTreeParamet
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SweCsaNetworkShifterTest {
 
@@ -51,6 +55,175 @@ class SweCsaNetworkShifterTest {
 
     }
 
+    @Test
+    void testShiftExchangeValuesWithWarmStartLoadFlow() throws GlskLimitationException, ShiftingException {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        RaoParameters raoParameters = RaoParameters.load();
+        ZonalData<Scalable> scalableZonalData = SweCsaZonalData.getZonalData(network);
+        Map<String, Double> targetExchanges = Map.of(
+            "ES_FR", 2020.,
+            "ES_PT", 0.
+        );
+        Map<String, Double> scalingValues = Map.of(
+            new EICode(Country.PT).getAreaCode(), 0.,
+            new EICode(Country.FR).getAreaCode(), -8.,
+            new EICode(Country.ES).getAreaCode(), 8.
+        );
+        LoadFlowParameters loadFlowParameters = LoadFlowAndSensitivityParameters.getSensitivityWithLoadFlowParameters(raoParameters).getLoadFlowParameters();
+        Map<String, Double> initialNetPositions = CountryBalanceComputation.computeSweCountriesBalances(network, loadFlowParameters);
+
+        new SweCsaNetworkShifter(scalableZonalData, 2012., 0., new ShiftDispatcher(initialNetPositions), new WarmStartLoadFlow(loadFlowParameters)).shiftExchangeValues(network, targetExchanges, scalingValues, raoParameters);
+        Map<String, Double> newBalance = CountryBalanceComputation.computeSweBordersExchanges(network);
+        assertEquals(2020., newBalance.get("ES_FR"), 1);
+        assertEquals(0, newBalance.get("ES_PT"), 1);
+    }
+
+    @Test
+    void testShiftExchangeValuesWithJacobianCorrection() throws GlskLimitationException, ShiftingException {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        RaoParameters raoParameters = RaoParameters.load();
+        ZonalData<Scalable> scalableZonalData = SweCsaZonalData.getZonalData(network);
+        Map<String, Double> targetExchanges = Map.of(
+            "ES_FR", 2020.,
+            "ES_PT", 0.
+        );
+        Map<String, Double> scalingValues = Map.of(
+            new EICode(Country.PT).getAreaCode(), 0.,
+            new EICode(Country.FR).getAreaCode(), -8.,
+            new EICode(Country.ES).getAreaCode(), 8.
+        );
+        Map<String, Double> initialNetPositions = CountryBalanceComputation.computeSweCountriesBalances(network, LoadFlowAndSensitivityParameters.getSensitivityWithLoadFlowParameters(raoParameters).getLoadFlowParameters());
+
+        SweCsaNetworkShifter networkShifter = new SweCsaNetworkShifter(scalableZonalData, 2012., 0., new ShiftDispatcher(initialNetPositions));
+        networkShifter.setJacobianCorrection(true);
+        networkShifter.shiftExchangeValues(network, targetExchanges, scalingValues, raoParameters);
+        Map<String, Double> newBalance = CountryBalanceComputation.computeSweBordersExchanges(network);
+        assertEquals(2020., newBalance.get("ES_FR"), 1);
+        assertEquals(0, newBalance.get("ES_PT"), 1);
+    }
+
+    @Test
+    void testShiftExchangeValuesWithDcPreShift() throws GlskLimitationException, ShiftingException {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        RaoParameters raoParameters = RaoParameters.load();
+        ZonalData<Scalable> scalableZonalData = SweCsaZonalData.getZonalData(network);
+        Map<String, Double> targetExchanges = Map.of(
+            "ES_FR", 2020.,
+            "ES_PT", 0.
+        );
+        Map<String, Double> scalingValues = Map.of(
+            new EICode(Country.PT).getAreaCode(), 0.,
+            new EICode(Country.FR).getAreaCode(), -8.,
+            new EICode(Country.ES).getAreaCode(), 8.
+        );
+        Map<String, Double> initialNetPositions = CountryBalanceComputation.computeSweCountriesBalances(network, LoadFlowAndSensitivityParameters.getSensitivityWithLoadFlowParameters(raoParameters).getLoadFlowParameters());
+
+        SweCsaNetworkShifter networkShifter = new SweCsaNetworkShifter(scalableZonalData, 2012., 0., new ShiftDispatcher(initialNetPositions));
+        networkShifter.setDcPreShift(true);
+        networkShifter.shiftExchangeValues(network, targetExchanges, scalingValues, raoParameters);
+        Map<String, Double> newBalance = CountryBalanceComputation.computeSweBordersExchanges(network);
+        assertEquals(2020., newBalance.get("ES_FR"), 1);
+        assertEquals(0, newBalance.get("ES_PT"), 1);
+        assertTrue(networkShifter.getLastShiftStatistics().dcIterations() >= 1);
+        assertTrue(networkShifter.getLastShiftStatistics().acIterations() >= 1);
+    }
+
+    @Test
+    void testShiftExchangeValuesReusingProcessedVariant() throws GlskLimitationException, ShiftingException {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        RaoParameters raoParameters = RaoParameters.load();
+        ZonalData<Scalable> scalableZonalData = SweCsaZonalData.getZonalData(network);
+        Map<String, Double> targetExchanges = Map.of(
+            "ES_FR", 2020.,
+            "ES_PT", 0.
+        );
+        Map<String, Double> scalingValues = Map.of(
+            new EICode(Country.PT).getAreaCode(), 0.,
+            new EICode(Country.FR).getAreaCode(), -8.,
+            new EICode(Country.ES).getAreaCode(), 8.
+        );
+        Map<String, Double> initialNetPositions = CountryBalanceComputation.computeSweCountriesBalances(network, LoadFlowAndSensitivityParameters.getSensitivityWithLoadFlowParameters(raoParameters).getLoadFlowParameters());
+        String initialVariantId = network.getVariantManager().getWorkingVariantId();
+        SweCsaNetworkShifter networkShifter = new SweCsaNetworkShifter(scalableZonalData, 2012., 0., new ShiftDispatcher(initialNetPositions));
+        networkShifter.setReuseProcessedVariant(true);
+
+        for (String stepVariantId : List.of("step-1", "step-2")) {
+            network.getVariantManager().cloneVariant(initialVariantId, stepVariantId);
+            network.getVariantManager().setWorkingVariant(stepVariantId);
+            networkShifter.shiftExchangeValues(network, targetExchanges, scalingValues, raoParameters);
+            Map<String, Double> newBalance = CountryBalanceComputation.computeSweBordersExchanges(network);
+            assertEquals(2020., newBalance.get("ES_FR"), 1);
+            assertEquals(0, newBalance.get("ES_PT"), 1);
+            assertTrue(network.getVariantManager().getVariantIds().contains("SHIFT PROCESSED COPY"));
+        }
+        networkShifter.releaseProcessedVariant(network);
+        assertEquals(3, network.getVariantManager().getVariantIds().size());
+    }
+
+    @Test
+    void testShiftExchangeValuesWithInjectionJournal() throws GlskLimitationException, ShiftingException {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        RaoParameters raoParameters = RaoParameters.load();
+        ZonalData<Scalable> scalableZonalData = SweCsaZonalData.getZonalData(network);
+        Map<String, Double> targetExchanges = Map.of(
+            "ES_FR", 2020.,
+            "ES_PT", 0.
+        );
+        Map<String, Double> scalingValues = Map.of(
+            new EICode(Country.PT).getAreaCode(), 0.,
+            new EICode(Country.FR).getAreaCode(), -8.,
+            new EICode(Country.ES).getAreaCode(), 8.
+        );
+        Map<String, Double> initialNetPositions = CountryBalanceComputation.computeSweCountriesBalances(network, LoadFlowAndSensitivityParameters.getSensitivityWithLoadFlowParameters(raoParameters).getLoadFlowParameters());
+        SweCsaNetworkShifter networkShifter = new SweCsaNetworkShifter(scalableZonalData, 2012., 0., new ShiftDispatcher(initialNetPositions));
+        networkShifter.setInjectionJournal(true);
+
+        networkShifter.shiftExchangeValues(network, targetExchanges, scalingValues, raoParameters);
+        Map<String, Double> newBalance = CountryBalanceComputation.computeSweBordersExchanges(network);
+        assertEquals(2020., newBalance.get("ES_FR"), 1);
+        assertEquals(0, newBalance.get("ES_PT"), 1);
+        assertEquals(1, network.getVariantManager().getVariantIds().size());
+    }
+
+    @Test
+    void testApplyCounterTradingBeyondGlskHeadroom() throws ShiftingException {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        RaoParameters raoParameters = RaoParameters.load();
+        ZonalData<Scalable> scalableZonalData = SweCsaZonalData.getZonalData(network);
+        Map<String, Double> initialNetPositions = CountryBalanceComputation.computeSweCountriesBalances(network, LoadFlowAndSensitivityParameters.getSensitivityWithLoadFlowParameters(raoParameters).getLoadFlowParameters());
+        SweCsaNetworkShifter networkShifter = new SweCsaNetworkShifter(scalableZonalData, 2012., 0., new ShiftDispatcher(initialNetPositions));
+        networkShifter.setGlskHeadroomIndex(GlskHeadroomIndex.compute(network, scalableZonalData));
+        double initialTargetP = network.getGenerator("FFR1AA11_generator").getTargetP();
+
+        CounterTradingValues counterTradingValues = new CounterTradingValues(0, 1e6);
+        assertThrows(GlskLimitationException.class, () -> networkShifter.applyCounterTrading(counterTradingValues, network, raoParameters));
+        assertEquals(1, network.getVariantManager().getVariantIds().size());
+        assertEquals(initialTargetP, network.getGenerator("FFR1AA11_generator").getTargetP(), 1e-6);
+    }
+
+    @Test
+    void testUpdateScalingValuesWithJacobian() {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        ZonalData<Scalable> scalableZonalData = SweCsaZonalData.getZonalData(network);
+        Map<String, Double> scalingValues = new HashMap<>();
+        scalingValues.put(new EICode(Country.ES).getAreaCode(), 50.0);
+        scalingValues.put(new EICode(Country.FR).getAreaCode(), 30.0);
+        scalingValues.put(new EICode(Country.PT).getAreaCode(), 20.0);
+        Map<String, Double> mismatch = Map.of(
+            "ES_FR", 8.0,
+            "ES_PT", 1.0
+        );
+        ScalingJacobian scalingJacobian = new ScalingJacobian();
+        scalingJacobian.update(new double[]{10, 0}, new double[]{8, 0.5});
+
+        ShiftDispatcher dispatcher = new ShiftDispatcher(Map.of(Country.ES.getName(), -1., Country.FR.getName(), 1., Country.PT.getName(), 2.));
+        new SweCsaNetworkShifter(scalableZonalData, 100., 200., dispatcher).updateScalingValuesWithJacobian(scalingValues, mismatch, scalingJacobian);
+
+        assertEquals(60.5, scalingValues.get(new EICode(Country.ES).getAreaCode()), 1e-9);
+        assertEquals(20.0, scalingValues.get(new EICode(Country.FR).getAreaCode()), 1e-9);
+        assertEquals(19.5, scalingValues.get(new EICode(Country.PT).getAreaCode()), 1e-9);
+    }
+
     @Test
     void testShiftExchangeValuesWithShiftingException() {
         Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
@@ -13,9 +13,30 @@ import com.powsybl.openrao.raoapi.parameters.RaoParameters;
 import org.mockito.Mockito;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class SweCsaRaoValidatorMock extends SweCsaRaoValidator {
+    private static final long CONCURRENT_VALIDATIONS_TIMEOUT_SECONDS = 10;
     FileExporter fileExporter;
     RaoRunnerClient raoRunnerClient;
+    // every border validation in call order, with the CT values of each RAO result
+    private final List<Validation> validations = Collections.synchronizedList(new ArrayList<>());
+    private final Map<RaoResult, CounterTradingValues> counterTradingValuesByRaoResult = new ConcurrentHashMap<>();
+    private final AtomicInteger frEsValidationsCount = new AtomicInteger();
+    private final AtomicBoolean concurrentFrEsValidationsTimedOut = new AtomicBoolean();
+    // a border is secure with more CT than its threshold, its worst margin being the CT above it
+    private double ptEsSecurityThreshold = -1;
+    private double frEsSecurityThreshold = 600;
+    private int skippedFrEsValidations = 0;
+    private CountDownLatch concurrentFrEsValidations = new CountDownLatch(0);
 
     public SweCsaRaoValidatorMock(FileExporter fileExporter, RaoRunnerClient raoRunnerClient) {
         super(fileExporter,
@@ -25,18 +46,76 @@ public class SweCsaRaoValidatorMock extends SweCsaRaoValidator {
     }
 
     @Override
-    public DichotomyStepResult validateNetworkForFrenchBorder(Network network, Crac crac, String cracUri, ZonalData<Scalable> scalableZonalData, RaoParameters raoParameters, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues) {
-        RaoSuccessResponse raoResponse = Mockito.mock(RaoSuccessResponse.class);
-        RaoResult raoResult = Mockito.mock(RaoResult.class);
-        boolean isSecure = counterTradingValues.frEsCt() > 600;
-        return DichotomyStepResult.fromNetworkValidationResult(raoResult, isSecure, raoResponse, counterTradingValues);
+    public DichotomyStepResult validateNetworkForFrenchBorder(Network network, Crac crac, String cracUri, ZonalData<Scalable> scalableZonalData, RaoParameters raoParameters, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues, String runId, String networkUrl) {
+        if (frEsValidationsCount.getAndIncrement() >= skippedFrEsValidations) {
+            awaitConcurrentFrEsValidations();
+        }
+        boolean isSecure = counterTradingValues.frEsCt() > frEsSecurityThreshold;
+        return validate("FR-ES", counterTradingValues, runId, isSecure, counterTradingValues.frEsCt() - frEsSecurityThreshold);
     }
 
     @Override
-    public DichotomyStepResult validateNetworkForPortugueseBorder(Network network, Crac crac, String cracUri, ZonalData<Scalable> scalableZonalData, RaoParameters raoParameters, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues) {
+    public DichotomyStepResult validateNetworkForPortugueseBorder(Network network, Crac crac, String cracUri, ZonalData<Scalable> scalableZonalData, RaoParameters raoParameters, CsaRequest csaRequest, String raoParametersUrl, CounterTradingValues counterTradingValues, String runId, String networkUrl) {
+        boolean isSecure = counterTradingValues.ptEsCt() > ptEsSecurityThreshold;
+        return validate("PT-ES", counterTradingValues, runId, isSecure, counterTradingValues.ptEsCt() - ptEsSecurityThreshold);
+    }
+
+    public void setSecurityThresholds(double ptEsSecurityThreshold, double frEsSecurityThreshold) {
+        this.ptEsSecurityThreshold = ptEsSecurityThreshold;
+        this.frEsSecurityThreshold = frEsSecurityThreshold;
+    }
+
+    public double getPtEsSecurityThreshold() {
+        return ptEsSecurityThreshold;
+    }
+
+    public double getFrEsSecurityThreshold() {
+        return frEsSecurityThreshold;
+    }
+
+    // FR-ES validations following the skipped ones are held until the given number of them run at the same time
+    public void holdFrEsValidationsUntilConcurrent(int skippedFrEsValidations, int concurrentFrEsValidations) {
+        this.skippedFrEsValidations = skippedFrEsValidations;
+        this.concurrentFrEsValidations = new CountDownLatch(concurrentFrEsValidations);
+    }
+
+    public boolean concurrentFrEsValidationsReached() {
+        return concurrentFrEsValidations.getCount() == 0 && !concurrentFrEsValidationsTimedOut.get();
+    }
+
+    public List<Validation> getValidations() {
+        synchronized (validations) {
+            return List.copyOf(validations);
+        }
+    }
+
+    public List<Double> getValidatedFrEsCounterTrading() {
+        return getValidations().stream().filter(validation -> validation.border().equals("FR-ES")).map(validation -> validation.counterTradingValues().frEsCt()).toList();
+    }
+
+    public CounterTradingValues getCounterTradingValues(RaoResult raoResult) {
+        return counterTradingValuesByRaoResult.get(raoResult);
+    }
+
+    private DichotomyStepResult validate(String border, CounterTradingValues counterTradingValues, String runId, boolean isSecure, double worstMargin) {
         RaoSuccessResponse raoResponse = Mockito.mock(RaoSuccessResponse.class);
         RaoResult raoResult = Mockito.mock(RaoResult.class);
-        boolean isSecure = counterTradingValues.ptEsCt() >= 0;
-        return DichotomyStepResult.fromNetworkValidationResult(raoResult, isSecure, raoResponse, counterTradingValues);
+        validations.add(new Validation(border, counterTradingValues, runId));
+        counterTradingValuesByRaoResult.put(raoResult, counterTradingValues);
+        return DichotomyStepResult.fromNetworkValidationResult(raoResult, isSecure, raoResponse, counterTradingValues, worstMargin);
+    }
+
+    private void awaitConcurrentFrEsValidations() {
+        concurrentFrEsValidations.countDown();
+        try {
+            if (!concurrentFrEsValidations.await(CONCURRENT_VALIDATIONS_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                concurrentFrEsValidationsTimedOut.set(true);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public record Validation(String border, CounterTradingValues counterTradingValues, String runId) {
     }
 }
@@ -52,6 +52,8 @@ class SweCsaRaoValidatorTest {
 
         assertEquals(0, cnecsPtEs.size());
         assertEquals(0, cnecsFrEs.size());
+        SweCsaRaoValidator sweCsaRaoValidator = new SweCsaRaoValidator(fileExporter, raoRunnerClient, LoggerFactory.getLogger(SweCsaRaoValidatorTest.class));
+        assertEquals(Double.NaN, sweCsaRaoValidator.getBorderWorstMargin(Mockito.mock(RaoResult.class), crac, "PT-ES"));
     }
 
     @Test
@@ -100,4 +102,39 @@ class SweCsaRaoValidatorTest {
         assertThrows(CsaInternalException.class, () -> sweCsaRaoValidator.validateNetworkForPortugueseBorder(network, crac, "", null, new RaoParameters(),
             new CsaRequest("id", "2024-12-01T15:30:00Z", "", "", "", ""), "raoParametersUrl", new CounterTradingValues(0.0, 0.0)));
     }
+
+    @Test
+    void testValidateNetworkWithSavedScaledNetwork() {
+        Network network = Network.read(getClass().getResource("/rao_inputs/network.xiidm").getPath());
+        Crac crac = fileImporter.importCrac("taskId", Objects.requireNonNull(getClass().getResource("/rao_inputs/crac.json")).toString(), network);
+        CsaRequest csaRequest = new CsaRequest("id", "2024-12-01T15:30:00Z", "", "", "", "");
+        CounterTradingValues counterTradingValues = new CounterTradingValues(0.0, 0.0);
+
+        SweCsaRaoValidator sweCsaRaoValidator = new SweCsaRaoValidator(fileExporter, raoRunnerClient, LoggerFactory.getLogger(SweCsaRaoValidatorTest.class));
+        Mockito.when(fileExporter.saveNetworkInArtifact(Mockito.eq("id"), Mockito.eq(network), Mockito.startsWith("artifacts/2024/12/1/15_30/"), Mockito.eq("PT-ES:0.0/FR-ES:0.0"))).thenReturn("scaled-network-url");
+        Mockito.when(raoRunnerClient.runRao(any())).thenReturn(new RaoFailureResponse.Builder().withId("id").withErrorMessage("errorMessage").build());
+        String networkUrl = sweCsaRaoValidator.saveScaledNetwork(csaRequest, network, counterTradingValues);
+        assertEquals("scaled-network-url", networkUrl);
+
+        assertThrows(CsaInternalException.class, () -> sweCsaRaoValidator.validateNetworkForPortugueseBorder(network, crac, "", null, new RaoParameters(), csaRequest, "raoParametersUrl", counterTradingValues, "id", networkUrl));
+        assertThrows(CsaInternalException.class, () -> sweCsaRaoValidator.validateNetworkForFrenchBorder(network, crac, "", null, new RaoParameters(), csaRequest, "raoParametersUrl", counterTradingValues, "id", networkUrl));
+        Mockito.verify(fileExporter, Mockito.times(1)).saveNetworkInArtifact(Mockito.anyString(), Mockito.any(), Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(raoRunnerClient, Mockito.times(2)).runRao(Mockito.argThat(raoRequest -> "scaled-network-url".equals(raoRequest.getNetworkFileUrl())));
+    }
+
+    @Test
+    void testValidateNetworkRaoResultDestinationByRun() {
+        Network network = Network.read(getClass().getResource("/rao_inputs/network.xiidm").getPath());
+        Crac crac = fileImporter.importCrac("taskId", Objects.requireNonNull(getClass().getResource("/rao_inputs/crac.json")).toString(), network);
+        CsaRequest csaRequest = new CsaRequest("id", "2024-12-01T15:30:00Z", "", "", "", "");
+        CounterTradingValues counterTradingValues = new CounterTradingValues(0.0, 0.0);
+
+        SweCsaRaoValidator sweCsaRaoValidator = new SweCsaRaoValidator(fileExporter, raoRunnerClient, LoggerFactory.getLogger(SweCsaRaoValidatorTest.class));
+        Mockito.when(raoRunnerClient.runRao(any())).thenReturn(new RaoFailureResponse.Builder().withId("id").withErrorMessage("errorMessage").build());
+        assertThrows(CsaInternalException.class, () -> sweCsaRaoValidator.validateNetworkForPortugueseBorder(network, crac, "", null, new RaoParameters(), csaRequest, "raoParametersUrl", counterTradingValues, "id-1", "network-url"));
+        assertThrows(CsaInternalException.class, () -> sweCsaRaoValidator.validateNetworkForPortugueseBorder(network, crac, "", null, new RaoParameters(), csaRequest, "raoParametersUrl", counterTradingValues, "id-2", "network-url"));
+        // runs of the same step do not overwrite each other results
+        Mockito.verify(raoRunnerClient).runRao(Mockito.argThat(raoRequest -> raoRequest.getResultsDestination().orElseThrow().endsWith("/id-1/PT-ES")));
+        Mockito.verify(raoRunnerClient).runRao(Mockito.argThat(raoRequest -> raoRequest.getResultsDestination().orElseThrow().endsWith("/id-2/PT-ES")));
+    }
 }
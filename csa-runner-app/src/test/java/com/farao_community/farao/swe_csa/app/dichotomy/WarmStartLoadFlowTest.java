@@ -0,0 +1,33 @@
+package com.farao_community.farao.swe_csa.app.dichotomy;
+
+import com.powsybl.iidm.network.Network;
+import com.powsybl.loadflow.LoadFlowParameters;
+import com.powsybl.loadflow.LoadFlowResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WarmStartLoadFlowTest {
+
+    @Test
+    void testRunRetriesFromInitialVoltages() {
+        Network network = Network.read("/dichotomy/TestCase_with_swe_countries.xiidm", getClass().getResourceAsStream("/dichotomy/TestCase_with_swe_countries.xiidm"));
+        String initialVariantId = network.getVariantManager().getWorkingVariantId();
+        WarmStartLoadFlow warmStartLoadFlow = new WarmStartLoadFlow(new LoadFlowParameters());
+
+        LoadFlowResult firstResult = warmStartLoadFlow.run(network, initialVariantId);
+        assertTrue(firstResult.isFullyConverged());
+
+        network.getVariantManager().cloneVariant(initialVariantId, "variant");
+        network.getVariantManager().setWorkingVariant("variant");
+        network.getBusView().getBuses().forEach(bus -> bus.setV(Double.NaN).setAngle(Double.NaN));
+        network.getVariantManager().setWorkingVariant(initialVariantId);
+
+        // variant voltages cannot start the load flow
+        LoadFlowResult secondResult = warmStartLoadFlow.run(network, "variant");
+        assertTrue(secondResult.isFullyConverged());
+        // working variant is left unchanged
+        assertEquals(initialVariantId, network.getVariantManager().getWorkingVariantId());
+    }
+}
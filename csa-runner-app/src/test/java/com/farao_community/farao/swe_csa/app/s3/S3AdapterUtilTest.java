@@ -63,6 +63,16 @@ class S3AdapterUtilTest {
         }
     }
 
+    @Test
+    void checkUploadWithKnownSize() throws Exception {
+        MinioClient minioClient = Mockito.mock(MinioClient.class);
+        Mockito.when(minioClient.bucketExists(Mockito.argThat(assertBucketExistsArgs()))).thenReturn(true);
+
+        S3AdapterUtil.uploadFile(minioClient, "/path", new ByteArrayInputStream("content".getBytes()), "bucket", 7);
+        Mockito.verify(minioClient, Mockito.times(1))
+            .putObject(Mockito.argThat(putObjectArgs -> assertPutObjectArgs().matches(putObjectArgs) && putObjectArgs.objectSize() == 7));
+    }
+
     private ArgumentMatcher<BucketExistsArgs> assertBucketExistsArgs() {
         return bucketExistsArgs -> bucketExistsArgs.bucket().equals("bucket");
     }